@@ -0,0 +1,35 @@
+package gg.launchblock.sdk;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import gg.launchblock.sdk.util.LifecycleState;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/// Realistic message payloads shared by the benchmarks
+public class LaunchBlockBenchmarkPayloads {
+
+	/// @return a `launchblock_lifecycle_status` message, including fields the SDK doesn't decode
+	public static ObjectNode lifecycleStatus() {
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		final LifecycleState[] states = LifecycleState.values();
+
+		final ObjectNode message = JsonNodeFactory.instance.objectNode();
+		message.put("workspaceIdentifier", UUID.randomUUID().toString());
+		message.put("environmentIdentifier", UUID.randomUUID().toString());
+		message.put("projectIdentifier", UUID.randomUUID().toString());
+		message.put("lifecycleId", UUID.randomUUID().toString());
+		message.put("oldState", states[random.nextInt(states.length)].name());
+		message.put("newState", states[random.nextInt(states.length)].name());
+		message.put("timestamp", System.currentTimeMillis());
+
+		final ObjectNode build = message.putObject("build");
+		build.put("commit", Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong()));
+		build.put("branch", "main");
+		build.putArray("logs").add("Resolving dependencies").add("Compiling sources").add("Packaging image");
+
+		return message;
+	}
+
+}
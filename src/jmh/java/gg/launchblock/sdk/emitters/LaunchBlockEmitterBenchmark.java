@@ -0,0 +1,86 @@
+package gg.launchblock.sdk.emitters;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import gg.launchblock.sdk.LaunchBlockBenchmarkPayloads;
+import gg.launchblock.sdk.event.LaunchBlockEventTopic;
+import gg.launchblock.sdk.util.JsonUtil;
+import gg.launchblock.sdk.util.LaunchBlockMessageFormat;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing and emitting `launchblock_lifecycle_status` messages. <br>
+ * Messages are sent to kafka's in-memory `MockProducer`, so no kafka broker is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LaunchBlockEmitterBenchmark {
+
+	private static final int BATCH_SIZE = 100;
+
+	@Param({"JSON", "SMILE"})
+	public LaunchBlockMessageFormat format;
+
+	private MockEmitter emitter;
+
+	private JsonNode message;
+
+	@Setup
+	public void setup() {
+		emitter = new MockEmitter(LaunchBlockEmitterSettings.builder().messageFormat(format).build());
+		message = LaunchBlockBenchmarkPayloads.lifecycleStatus();
+	}
+
+	@TearDown
+	public void tearDown() {
+		emitter.close();
+	}
+
+	/// Serialization alone, as done before every send
+	@Benchmark
+	public byte[] serialize() throws Exception {
+		return JsonUtil.writeValueAsBytes(message, format);
+	}
+
+	/// Serialization through an intermediate String, as the emitter used to do; for comparison with {@link #serialize()}
+	@Benchmark
+	public byte[] serializeThroughString() {
+		return message.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/// Serializing, keying and handing messages to the producer, including completing their futures
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void send() {
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			emitter.sendAsync(LaunchBlockEventTopic.LIFECYCLE_STATUS, message).join();
+		}
+		// the mock producer keeps every record it was sent
+		emitter.getMockProducer().clear();
+	}
+
+	private static class MockEmitter extends LaunchBlockMessageEmitter {
+
+		private MockEmitter(final LaunchBlockEmitterSettings settings) {
+			super(settings);
+		}
+
+		@Override
+		public Producer<String, byte[]> createProducer() {
+			return new MockProducer<>(true, new StringSerializer(), new ByteArraySerializer());
+		}
+
+		private MockProducer<String, byte[]> getMockProducer() {
+			return (MockProducer<String, byte[]>) getKafkaProducer();
+		}
+
+	}
+
+}
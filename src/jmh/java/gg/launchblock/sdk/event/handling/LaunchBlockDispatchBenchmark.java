@@ -0,0 +1,87 @@
+package gg.launchblock.sdk.event.handling;
+
+import gg.launchblock.sdk.LaunchBlockBenchmarkPayloads;
+import gg.launchblock.sdk.event.LaunchBlockEvent;
+import gg.launchblock.sdk.event.LaunchBlockEventTopic;
+import gg.launchblock.sdk.event.LaunchBlockLifecycleStatusEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/// Dispatching a decoded event to listeners of mixed priorities, including handlers declared for a supertype
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LaunchBlockDispatchBenchmark {
+
+	@Param({"1", "10", "100"})
+	public int listenerCount;
+
+	private LaunchBlockEventManager eventManager;
+
+	private LaunchBlockLifecycleStatusEvent event;
+
+	@Setup
+	public void setup() {
+		eventManager = new LaunchBlockEventManager("benchmark", LaunchBlockEventManagerSettings.DEFAULT, LaunchBlockOfflineConnection.FACTORY);
+
+		for (int i = 0; i < listenerCount; i++) {
+			switch (i % 3) {
+				case 0 -> eventManager.registerEvents(new HighPriorityListener());
+				case 1 -> eventManager.registerEvents(new DefaultPriorityListener());
+				default -> eventManager.registerEvents(new LowPriorityListener());
+			}
+		}
+
+		event = new LaunchBlockLifecycleStatusEvent(LaunchBlockEventTopic.LIFECYCLE_STATUS, LaunchBlockBenchmarkPayloads.lifecycleStatus());
+	}
+
+	@TearDown
+	public void tearDown() {
+		eventManager.close();
+	}
+
+	@Benchmark
+	public void dispatch() {
+		eventManager.dispatchEvent(event);
+	}
+
+	public static class HighPriorityListener implements LaunchBlockEventListener {
+
+		public long handled;
+
+		@LaunchBlockEventHandler(priority = LaunchBlockEventPriority.HIGH)
+		public void onLifecycleStatus(final LaunchBlockLifecycleStatusEvent event) {
+			handled++;
+		}
+
+	}
+
+	public static class DefaultPriorityListener implements LaunchBlockEventListener {
+
+		public long handled;
+
+		@LaunchBlockEventHandler
+		public void onLifecycleStatus(final LaunchBlockLifecycleStatusEvent event) {
+			handled++;
+		}
+
+		@LaunchBlockEventHandler(priority = LaunchBlockEventPriority.LOWEST)
+		public void onAnyEvent(final LaunchBlockEvent event) {
+			handled++;
+		}
+
+	}
+
+	public static class LowPriorityListener implements LaunchBlockEventListener {
+
+		public long handled;
+
+		@LaunchBlockEventHandler(priority = LaunchBlockEventPriority.LOW)
+		public void onLifecycleStatus(final LaunchBlockLifecycleStatusEvent event) {
+			handled++;
+		}
+
+	}
+
+}
@@ -0,0 +1,76 @@
+package gg.launchblock.sdk.event.handling;
+
+import gg.launchblock.sdk.LaunchBlockBenchmarkPayloads;
+import gg.launchblock.sdk.event.LaunchBlockEventTopic;
+import gg.launchblock.sdk.event.LaunchBlockLifecycleStatusEvent;
+import gg.launchblock.sdk.util.JsonUtil;
+import gg.launchblock.sdk.util.LaunchBlockMessageFormat;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding and dispatching polled batches of `launchblock_lifecycle_status` messages, as done on the consumer threads. <br>
+ * Batches are built in memory and handed to the manager directly, so no kafka broker is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LaunchBlockHandleMessagesBenchmark {
+
+	@Param({"1", "100", "500"})
+	public int batchSize;
+
+	@Param({"JSON", "SMILE"})
+	public LaunchBlockMessageFormat format;
+
+	private LaunchBlockEventManager eventManager;
+
+	private StatusListener listener;
+
+	private ConsumerRecords<String, byte[]> batch;
+
+	@Setup
+	public void setup() throws Exception {
+		eventManager = new LaunchBlockEventManager("benchmark", LaunchBlockEventManagerSettings.DEFAULT, LaunchBlockOfflineConnection.FACTORY);
+		listener = new StatusListener();
+		eventManager.registerEvents(listener);
+
+		final List<ConsumerRecord<String, byte[]>> records = new ArrayList<>(batchSize);
+		for (int i = 0; i < batchSize; i++) {
+			final byte[] value = JsonUtil.writeValueAsBytes(LaunchBlockBenchmarkPayloads.lifecycleStatus(), format);
+			records.add(new ConsumerRecord<>(LaunchBlockEventTopic.LIFECYCLE_STATUS, 0, i, null, value));
+		}
+		batch = new ConsumerRecords<>(Map.of(new TopicPartition(LaunchBlockEventTopic.LIFECYCLE_STATUS, 0), records));
+	}
+
+	@TearDown
+	public void tearDown() {
+		eventManager.close();
+	}
+
+	@Benchmark
+	public long handleBatch() {
+		eventManager.handleKafkaMessages(batch).join();
+		return listener.handled;
+	}
+
+	public static class StatusListener implements LaunchBlockEventListener {
+
+		private long handled;
+
+		@LaunchBlockEventHandler
+		public void onLifecycleStatus(final LaunchBlockLifecycleStatusEvent event) {
+			// touch decoded fields so decoding can't be skipped
+			handled += event.getNewState() != null ? event.getLifecycleId().getLeastSignificantBits() : 0;
+		}
+
+	}
+
+}
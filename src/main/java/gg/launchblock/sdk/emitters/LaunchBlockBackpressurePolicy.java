@@ -0,0 +1,9 @@
+package gg.launchblock.sdk.emitters;
+
+/// What a {@link LaunchBlockMessageEmitter} does with a message while its maximum amount of records are in flight
+public enum LaunchBlockBackpressurePolicy {
+	/// The sending thread waits until an earlier record has been acknowledged or has failed
+	BLOCK,
+	/// The message is not sent and its future fails right away
+	REJECT;
+}
@@ -0,0 +1,620 @@
+package gg.launchblock.sdk.emitters;
+
+import gg.launchblock.sdk.exception.LaunchBlockSDKException;
+import gg.launchblock.sdk.exception.LaunchBlockSDKExceptionType;
+import gg.launchblock.sdk.util.LaunchBlockSDKConstants;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead journal of a {@link LaunchBlockMessageEmitter}: messages are appended to memory-mapped segment files
+ * and sent to kafka in batches by a background thread, which retries with backoff while kafka is unreachable. <br>
+ * Segments start with a header of (int magic, int version, long drained position), followed by records of
+ * (int length, int CRC32C, topic, key, headers, value). A segment is deleted once every record in it has been acknowledged,
+ * and records which weren't acknowledged yet are sent again after a restart, so messages are delivered at least once.
+ */
+final class LaunchBlockEmitterJournal {
+
+	private static final int MAGIC = 0x4C424A4C; // "LBJL"
+
+	private static final int VERSION = 1;
+
+	private static final int HEADER_BYTES = 16;
+
+	private static final int DRAINED_POSITION_INDEX = 8;
+
+	/// length and checksum preceding every record
+	private static final int RECORD_HEADER_BYTES = 8;
+
+	private static final String SEGMENT_SUFFIX = ".journal";
+
+	/// most records sent to kafka at once
+	private static final int BATCH_SIZE = 512;
+
+	private static final long MIN_RETRY_BACKOFF_MILLIS = 100;
+
+	private static final long MAX_RETRY_BACKOFF_MILLIS = 30_000;
+
+	private final Path directory;
+
+	private final LaunchBlockEmitterSettings settings;
+
+	/// returns the emitter's producer, connecting it first if necessary; throws while kafka is unreachable
+	private final Supplier<Producer<String, byte[]>> producerSupplier;
+
+	private final int segmentBytes;
+
+	private final int maxSegments;
+
+	/// oldest first; records are appended to the last one. Guarded by `this`, which is also notified on appends and deletions
+	private final Deque<Segment> segments = new ArrayDeque<>();
+
+	/// futures of records appended by this journal, by {@link #positionKey(Segment, int)}
+	private final Map<Long, CompletableFuture<RecordMetadata>> pending = new ConcurrentHashMap<>();
+
+	private final Thread drainer;
+
+	private volatile boolean running = true;
+
+	private long nextSegmentId;
+
+	/// whether records were appended since the segments were last forced to disk
+	private boolean dirty;
+
+	private long lastSyncNanos = System.nanoTime();
+
+	private LaunchBlockEmitterJournal(final LaunchBlockEmitterSettings settings, final Supplier<Producer<String, byte[]>> producerSupplier) {
+		this.directory = settings.getJournalDirectory();
+		this.settings = settings;
+		this.producerSupplier = producerSupplier;
+		// several segments, so drained ones can be deleted while the journal is still being appended to
+		this.segmentBytes = (int) Math.max(128 * 1024, Math.min(settings.getMaxJournalBytes() / 8, 64 * 1024 * 1024));
+		this.maxSegments = (int) Math.max(2, settings.getMaxJournalBytes() / segmentBytes);
+		this.drainer = Thread.ofPlatform().name("launchblock-emitter-journal").daemon(true).unstarted(this::drain);
+	}
+
+	/**
+	 * Opens the journal in the settings' directory, recovering every record which hasn't been sent yet,
+	 * and starts sending them
+	 * @throws LaunchBlockSDKException if the directory can't be used or contains an invalid segment
+	 */
+	static LaunchBlockEmitterJournal open(final LaunchBlockEmitterSettings settings, final Supplier<Producer<String, byte[]>> producerSupplier) {
+		final LaunchBlockEmitterJournal journal = new LaunchBlockEmitterJournal(settings, producerSupplier);
+		try {
+			journal.recover();
+		} catch (IOException | UncheckedIOException e) {
+			journal.closeSegments();
+			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.KAFKA,
+					"Failed to open the message journal in '%s'".formatted(settings.getJournalDirectory()));
+		}
+		journal.drainer.start();
+		return journal;
+	}
+
+	/**
+	 * Appends a record to the journal, applying the emitter's {@link LaunchBlockBackpressurePolicy} while the journal is full
+	 * @return a future completing once kafka acknowledged the record
+	 */
+	CompletableFuture<RecordMetadata> append(final String topic, final String key, final byte[] value, final Map<String, String> headers) {
+		final byte[] record = encode(topic, key, value, headers);
+		if (RECORD_HEADER_BYTES + record.length > segmentBytes - HEADER_BYTES) {
+			return CompletableFuture.failedFuture(new LaunchBlockSDKException(LaunchBlockSDKExceptionType.KAFKA,
+					"A message of %d bytes in topic '%s' exceeds the journal's segment size".formatted(record.length, topic)));
+		}
+
+		final CompletableFuture<RecordMetadata> result = new CompletableFuture<>();
+
+		synchronized (this) {
+			Segment segment = segments.peekLast();
+			while (segment == null || segment.writePosition + RECORD_HEADER_BYTES + record.length > segment.capacity) {
+				if (!running) {
+					return CompletableFuture.failedFuture(new LaunchBlockSDKException(LaunchBlockSDKExceptionType.KAFKA,
+							"Attempted to use a closed message journal"));
+				}
+
+				if (segments.size() < maxSegments) {
+					try {
+						segment = createSegment();
+					} catch (IOException e) {
+						return CompletableFuture.failedFuture(new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.KAFKA,
+								"Failed to create a message journal segment in '%s'".formatted(directory)));
+					}
+					segments.addLast(segment);
+					break;
+				}
+
+				if (settings.getBackpressurePolicy() == LaunchBlockBackpressurePolicy.REJECT) {
+					return CompletableFuture.failedFuture(new LaunchBlockSDKException(LaunchBlockSDKExceptionType.KAFKA,
+							"Rejected a message in topic '%s' since the message journal is full".formatted(topic)));
+				}
+				awaitChange();
+				segment = segments.peekLast();
+			}
+
+			final int position = segment.writePosition;
+			final CRC32C checksum = new CRC32C();
+			checksum.update(record);
+
+			segment.buffer.putInt(position, record.length);
+			segment.buffer.putInt(position + 4, (int) checksum.getValue());
+			segment.buffer.put(position + RECORD_HEADER_BYTES, record);
+			segment.writePosition = position + RECORD_HEADER_BYTES + record.length;
+
+			pending.put(positionKey(segment, position), result);
+
+			if (settings.getJournalSyncPolicy() == LaunchBlockJournalSyncPolicy.ALWAYS) {
+				segment.buffer.force();
+			} else {
+				dirty = true;
+			}
+			notifyAll();
+		}
+
+		return result;
+	}
+
+	/// Forces every appended record to disk
+	synchronized void sync() {
+		segments.forEach(segment -> segment.buffer.force());
+		dirty = false;
+		lastSyncNanos = System.nanoTime();
+	}
+
+	/// @return the size of the records which haven't been acknowledged by kafka yet
+	synchronized long getBacklogBytes() {
+		long backlog = 0;
+		for (Segment segment : segments) {
+			backlog += segment.writePosition - segment.drainedPosition;
+		}
+		return backlog;
+	}
+
+	/**
+	 * Stops sending records once the current batch is sent
+	 * @return whether the current batch was sent within the timeout
+	 */
+	boolean stop(final Duration timeout) {
+		running = false;
+		synchronized (this) {
+			notifyAll();
+		}
+
+		try {
+			drainer.join(timeout);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return !drainer.isAlive();
+	}
+
+	/**
+	 * Stops sending records and closes the segment files; records which weren't sent remain on disk for the next journal
+	 * using the directory. Futures of those records fail.
+	 */
+	void close() {
+		stop(Duration.ZERO);
+		try {
+			drainer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		synchronized (this) {
+			segments.forEach(segment -> segment.buffer.force());
+			closeSegments();
+		}
+
+		pending.values().forEach(future -> future.completeExceptionally(new LaunchBlockSDKException(LaunchBlockSDKExceptionType.KAFKA,
+				"The message emitter closed before the message was sent; it remains in the journal in '%s'".formatted(directory))));
+		pending.clear();
+	}
+
+	/// Sends batches of records until stopped, retrying a batch with exponential backoff while kafka is unreachable
+	private void drain() {
+		long backoffMillis = MIN_RETRY_BACKOFF_MILLIS;
+
+		while (running) {
+			final List<JournalRecord> batch = nextBatch();
+			if (batch.isEmpty()) {
+				continue;
+			}
+
+			final int sent = send(batch);
+			if (sent > 0) {
+				markDrained(batch.subList(0, sent));
+			}
+
+			if (sent == batch.size()) {
+				backoffMillis = MIN_RETRY_BACKOFF_MILLIS;
+			} else {
+				sleep(backoffMillis);
+				backoffMillis = Math.min(backoffMillis * 2, MAX_RETRY_BACKOFF_MILLIS);
+			}
+		}
+	}
+
+	/// @return how many records at the start of the batch were acknowledged by kafka
+	private int send(final List<JournalRecord> batch) {
+		final List<CompletableFuture<RecordMetadata>> results = new ArrayList<>(batch.size());
+		try {
+			final Producer<String, byte[]> producer = producerSupplier.get();
+			for (JournalRecord record : batch) {
+				final CompletableFuture<RecordMetadata> result = new CompletableFuture<>();
+				producer.send(new ProducerRecord<>(record.topic, null, record.key, record.value, record.headers), (metadata, e) -> {
+					if (e == null) {
+						result.complete(metadata);
+					} else {
+						result.completeExceptionally(e);
+					}
+				});
+				results.add(result);
+			}
+			producer.flush();
+		} catch (RuntimeException e) {
+			LaunchBlockSDKConstants.JAVA_SDK_LOGGER.warn("Failed to send messages of the journal in '{}' to kafka; retrying", directory, e);
+		}
+
+		for (int i = 0; i < results.size(); i++) {
+			try {
+				batch.get(i).metadata = results.get(i).join();
+			} catch (CompletionException e) {
+				LaunchBlockSDKConstants.JAVA_SDK_LOGGER.warn("Failed to send a message of the journal in '{}' to kafka; retrying", directory, e.getCause());
+				return i;
+			}
+		}
+		return results.size();
+	}
+
+	/// @return the next records to send, or none after waiting for records to be appended
+	private synchronized List<JournalRecord> nextBatch() {
+		final List<JournalRecord> batch = new ArrayList<>();
+		syncIfDue();
+
+		// the previous batch was marked as drained as far as it was sent, so a failed batch is retried from its first unsent record
+		for (Segment segment : segments) {
+			int position = segment.drainedPosition;
+			while (position < segment.writePosition && batch.size() < BATCH_SIZE) {
+				final JournalRecord record = decode(segment, position);
+				batch.add(record);
+				position = record.end;
+			}
+			if (batch.size() == BATCH_SIZE) {
+				break;
+			}
+		}
+
+		if (batch.isEmpty()) {
+			awaitChange(settings.getJournalSyncInterval());
+		}
+		return batch;
+	}
+
+	/// Records the batch's records as sent, deletes fully sent segments and completes the records' futures
+	private void markDrained(final List<JournalRecord> records) {
+		final Map<CompletableFuture<RecordMetadata>, RecordMetadata> completed = new IdentityHashMap<>();
+
+		synchronized (this) {
+			final Set<Segment> affected = new LinkedHashSet<>();
+			for (JournalRecord record : records) {
+				record.segment.drainedPosition = record.end;
+				affected.add(record.segment);
+
+				final CompletableFuture<RecordMetadata> future = pending.remove(positionKey(record.segment, record.start));
+				if (future != null) {
+					completed.put(future, record.metadata);
+				}
+			}
+			affected.forEach(segment -> segment.buffer.putLong(DRAINED_POSITION_INDEX, segment.drainedPosition));
+
+			// segments before the last one are never appended to again
+			while (segments.size() > 1 && segments.peekFirst().drainedPosition == segments.peekFirst().writePosition) {
+				deleteSegment(segments.removeFirst());
+			}
+			notifyAll();
+		}
+
+		// outside the lock, since dependent actions run on this thread
+		completed.forEach(CompletableFuture::complete);
+	}
+
+	private void sleep(final long millis) {
+		final long deadline = System.nanoTime() + millis * 1_000_000;
+		synchronized (this) {
+			long remaining;
+			// appends notify the monitor too, which shouldn't cut the backoff short
+			while (running && (remaining = (deadline - System.nanoTime()) / 1_000_000) > 0) {
+				try {
+					wait(remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					running = false;
+				}
+			}
+		}
+	}
+
+	private void syncIfDue() {
+		if (dirty && System.nanoTime() - lastSyncNanos >= settings.getJournalSyncInterval().toNanos()
+				&& settings.getJournalSyncPolicy() == LaunchBlockJournalSyncPolicy.INTERVAL) {
+			sync();
+		}
+	}
+
+	/// waits on the monitor, which must be held, for an append, deletion or the journal stopping
+	private void awaitChange() {
+		try {
+			wait();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.KAFKA, "Interrupted while waiting for space in the message journal");
+		}
+	}
+
+	private void awaitChange(final Duration timeout) {
+		if (!running) {
+			return;
+		}
+		try {
+			wait(Math.max(1, timeout.toMillis()));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			running = false;
+		}
+	}
+
+	private void recover() throws IOException {
+		Files.createDirectories(directory);
+
+		final List<Path> files;
+		try (Stream<Path> list = Files.list(directory)) {
+			files = list.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+		}
+
+		for (Path file : files) {
+			final Segment segment = openSegment(file);
+			nextSegmentId = Math.max(nextSegmentId, segment.id + 1);
+			if (segment.drainedPosition == segment.writePosition) {
+				deleteSegment(segment);
+			} else {
+				segments.addLast(segment);
+			}
+		}
+	}
+
+	private Segment openSegment(final Path file) throws IOException {
+		final String name = file.getFileName().toString();
+		final long id;
+		try {
+			id = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+		} catch (NumberFormatException e) {
+			throw new IOException("Unexpected journal segment name '%s'".formatted(name));
+		}
+
+		final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+		if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+			channel.close();
+			throw new IOException("'%s' is not a journal segment of a supported version".formatted(file));
+		}
+
+		final Segment segment = new Segment(id, file, channel, buffer);
+		segment.drainedPosition = (int) Math.min(Math.max(buffer.getLong(DRAINED_POSITION_INDEX), HEADER_BYTES), buffer.capacity());
+
+		// records end at the first empty or corrupt one, e.g. one that was partially written during a crash
+		int position = segment.drainedPosition;
+		while (isValidRecord(buffer, position)) {
+			position += RECORD_HEADER_BYTES + buffer.getInt(position);
+		}
+		segment.writePosition = position;
+		return segment;
+	}
+
+	private static boolean isValidRecord(final ByteBuffer buffer, final int position) {
+		if (position + RECORD_HEADER_BYTES > buffer.capacity()) {
+			return false;
+		}
+		final int length = buffer.getInt(position);
+		if (length <= 0 || length > buffer.capacity() - position - RECORD_HEADER_BYTES) {
+			return false;
+		}
+
+		final CRC32C checksum = new CRC32C();
+		checksum.update(buffer.slice(position + RECORD_HEADER_BYTES, length));
+		return (int) checksum.getValue() == buffer.getInt(position + 4);
+	}
+
+	private Segment createSegment() throws IOException {
+		final long id = nextSegmentId++;
+		final Path file = directory.resolve("%020d%s".formatted(id, SEGMENT_SUFFIX));
+		final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+
+		buffer.putInt(0, MAGIC);
+		buffer.putInt(4, VERSION);
+		buffer.putLong(DRAINED_POSITION_INDEX, HEADER_BYTES);
+
+		final Segment segment = new Segment(id, file, channel, buffer);
+		segment.drainedPosition = HEADER_BYTES;
+		segment.writePosition = HEADER_BYTES;
+		return segment;
+	}
+
+	private void deleteSegment(final Segment segment) {
+		try {
+			segment.channel.close();
+			Files.deleteIfExists(segment.file);
+		} catch (IOException e) {
+			LaunchBlockSDKConstants.JAVA_SDK_LOGGER.warn("Failed to delete journal segment '{}'", segment.file, e);
+		}
+	}
+
+	private void closeSegments() {
+		for (Segment segment : segments) {
+			try {
+				segment.channel.close();
+			} catch (IOException e) {
+				LaunchBlockSDKConstants.JAVA_SDK_LOGGER.warn("Failed to close journal segment '{}'", segment.file, e);
+			}
+		}
+		segments.clear();
+	}
+
+	private static long positionKey(final Segment segment, final int position) {
+		return (segment.id << 32) | position;
+	}
+
+	private static byte[] encode(final String topic, final String key, final byte[] value, final Map<String, String> headers) {
+		final byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+		final byte[] keyBytes = key != null ? key.getBytes(StandardCharsets.UTF_8) : null;
+		final List<byte[]> headerBytes = new ArrayList<>(headers.size() * 2);
+
+		int size = 2 + topicBytes.length + 4 + (keyBytes != null ? keyBytes.length : 0) + 2 + 4 + (value != null ? value.length : 0);
+		for (Map.Entry<String, String> header : headers.entrySet()) {
+			final byte[] name = header.getKey().getBytes(StandardCharsets.UTF_8);
+			final byte[] headerValue = header.getValue().getBytes(StandardCharsets.UTF_8);
+			headerBytes.add(name);
+			headerBytes.add(headerValue);
+			size += 2 + name.length + 4 + headerValue.length;
+		}
+
+		final ByteBuffer buffer = ByteBuffer.allocate(size);
+		buffer.putShort((short) topicBytes.length).put(topicBytes);
+		buffer.putInt(keyBytes != null ? keyBytes.length : -1);
+		if (keyBytes != null) {
+			buffer.put(keyBytes);
+		}
+		buffer.putShort((short) headers.size());
+		for (int i = 0; i < headerBytes.size(); i += 2) {
+			buffer.putShort((short) headerBytes.get(i).length).put(headerBytes.get(i));
+			buffer.putInt(headerBytes.get(i + 1).length).put(headerBytes.get(i + 1));
+		}
+		// -1 for tombstones, like a missing key
+		buffer.putInt(value != null ? value.length : -1);
+		if (value != null) {
+			buffer.put(value);
+		}
+		return buffer.array();
+	}
+
+	private static JournalRecord decode(final Segment segment, final int position) {
+		final int length = segment.buffer.getInt(position);
+		final ByteBuffer buffer = segment.buffer.slice(position + RECORD_HEADER_BYTES, length);
+
+		final String topic = getString(buffer, buffer.getShort());
+		final int keyLength = buffer.getInt();
+		final String key = keyLength < 0 ? null : getString(buffer, keyLength);
+
+		final int headerCount = buffer.getShort();
+		final List<Header> headers = new ArrayList<>(headerCount);
+		for (int i = 0; i < headerCount; i++) {
+			final String name = getString(buffer, buffer.getShort());
+			final byte[] headerValue = new byte[buffer.getInt()];
+			buffer.get(headerValue);
+			headers.add(new RecordHeader(name, headerValue));
+		}
+
+		final int valueLength = buffer.getInt();
+		final byte[] value = valueLength < 0 ? null : new byte[valueLength];
+		if (value != null) {
+			buffer.get(value);
+		}
+
+		return new JournalRecord(segment, position, position + RECORD_HEADER_BYTES + length, topic, key, headers, value);
+	}
+
+	private static String getString(final ByteBuffer buffer, final int length) {
+		final byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/// A memory-mapped segment file; positions are guarded by the journal
+	private static final class Segment {
+
+		private final long id;
+
+		private final Path file;
+
+		private final FileChannel channel;
+
+		private final MappedByteBuffer buffer;
+
+		private final int capacity;
+
+		/// start of the first record which hasn't been acknowledged by kafka
+		private int drainedPosition;
+
+		/// end of the last appended record
+		private int writePosition;
+
+		private Segment(final long id, final Path file, final FileChannel channel, final MappedByteBuffer buffer) {
+			this.id = id;
+			this.file = file;
+			this.channel = channel;
+			this.buffer = buffer;
+			this.capacity = buffer.capacity();
+		}
+
+	}
+
+	private static final class JournalRecord {
+
+		private final Segment segment;
+
+		private final int start;
+
+		private final int end;
+
+		private final String topic;
+
+		private final String key;
+
+		private final List<Header> headers;
+
+		private final byte[] value;
+
+		/// set once kafka acknowledged the record
+		private RecordMetadata metadata;
+
+		private JournalRecord(final Segment segment, final int start, final int end, final String topic, final String key,
+							  final List<Header> headers, final byte[] value) {
+			this.segment = segment;
+			this.start = start;
+			this.end = end;
+			this.topic = topic;
+			this.key = key;
+			this.headers = headers;
+			this.value = value;
+		}
+
+	}
+
+}
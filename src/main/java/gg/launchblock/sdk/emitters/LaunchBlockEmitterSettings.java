@@ -0,0 +1,228 @@
+package gg.launchblock.sdk.emitters;
+
+import gg.launchblock.sdk.util.LaunchBlockMessageFormat;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Options of a {@link LaunchBlockMessageEmitter}. <br>
+ * Create through {@link #builder()}; {@link #DEFAULT} reproduces the behaviour of an emitter created without settings.
+ */
+public class LaunchBlockEmitterSettings {
+
+	public static final LaunchBlockEmitterSettings DEFAULT = builder().build();
+
+	private final int maxInFlightRecords;
+
+	private final LaunchBlockBackpressurePolicy backpressurePolicy;
+
+	private final LaunchBlockProducerProfile producerProfile;
+
+	private final Map<String, String> producerProperties;
+
+	private final LaunchBlockMessageFormat messageFormat;
+
+	private final boolean deriveKeys;
+
+	private final Path journalDirectory;
+
+	private final long maxJournalBytes;
+
+	private final LaunchBlockJournalSyncPolicy journalSyncPolicy;
+
+	private final Duration journalSyncInterval;
+
+	private LaunchBlockEmitterSettings(final Builder builder) {
+		this.maxInFlightRecords = builder.maxInFlightRecords;
+		this.backpressurePolicy = builder.backpressurePolicy;
+		this.producerProfile = builder.producerProfile;
+		this.producerProperties = Collections.unmodifiableMap(new LinkedHashMap<>(builder.producerProperties));
+		this.messageFormat = builder.messageFormat;
+		this.deriveKeys = builder.deriveKeys;
+		this.journalDirectory = builder.journalDirectory;
+		this.maxJournalBytes = builder.maxJournalBytes;
+		this.journalSyncPolicy = builder.journalSyncPolicy;
+		this.journalSyncInterval = builder.journalSyncInterval;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/// Maximum amount of records sent but not yet acknowledged by kafka; 0 when unbounded
+	public int getMaxInFlightRecords() {
+		return maxInFlightRecords;
+	}
+
+	public LaunchBlockBackpressurePolicy getBackpressurePolicy() {
+		return backpressurePolicy;
+	}
+
+	public LaunchBlockProducerProfile getProducerProfile() {
+		return producerProfile;
+	}
+
+	/// Kafka producer properties overriding those of the {@link #getProducerProfile() profile}
+	public Map<String, String> getProducerProperties() {
+		return producerProperties;
+	}
+
+	public LaunchBlockMessageFormat getMessageFormat() {
+		return messageFormat;
+	}
+
+	/// Whether messages sent without a key are keyed by the entity their json payload is about
+	public boolean isDeriveKeys() {
+		return deriveKeys;
+	}
+
+	/// Directory of the emitter's journal, or null if messages are sent to kafka directly
+	public Path getJournalDirectory() {
+		return journalDirectory;
+	}
+
+	/// Most disk space taken by the journal's segment files
+	public long getMaxJournalBytes() {
+		return maxJournalBytes;
+	}
+
+	public LaunchBlockJournalSyncPolicy getJournalSyncPolicy() {
+		return journalSyncPolicy;
+	}
+
+	/// With {@link LaunchBlockJournalSyncPolicy#INTERVAL}, the time after which appended messages are forced to disk
+	public Duration getJournalSyncInterval() {
+		return journalSyncInterval;
+	}
+
+	public static class Builder {
+
+		private int maxInFlightRecords = 0;
+
+		private LaunchBlockBackpressurePolicy backpressurePolicy = LaunchBlockBackpressurePolicy.BLOCK;
+
+		private LaunchBlockProducerProfile producerProfile = LaunchBlockProducerProfile.DEFAULT;
+
+		private final Map<String, String> producerProperties = new LinkedHashMap<>();
+
+		private LaunchBlockMessageFormat messageFormat = LaunchBlockMessageFormat.JSON;
+
+		private boolean deriveKeys = false;
+
+		private Path journalDirectory;
+
+		private long maxJournalBytes = 256L * 1024 * 1024;
+
+		private LaunchBlockJournalSyncPolicy journalSyncPolicy = LaunchBlockJournalSyncPolicy.INTERVAL;
+
+		private Duration journalSyncInterval = Duration.ofSeconds(1);
+
+		private Builder() {
+		}
+
+		/**
+		 * Bounds the amount of records which have been sent but not acknowledged or failed yet,
+		 * applying the {@link #backpressurePolicy(LaunchBlockBackpressurePolicy)} once reached. 0 leaves it unbounded.
+		 */
+		public Builder maxInFlightRecords(final int maxInFlightRecords) {
+			if (maxInFlightRecords < 0) {
+				throw new IllegalArgumentException("maxInFlightRecords must not be negative, got " + maxInFlightRecords);
+			}
+			this.maxInFlightRecords = maxInFlightRecords;
+			return this;
+		}
+
+		/// @see LaunchBlockBackpressurePolicy
+		public Builder backpressurePolicy(final LaunchBlockBackpressurePolicy backpressurePolicy) {
+			this.backpressurePolicy = Objects.requireNonNull(backpressurePolicy, "backpressurePolicy");
+			return this;
+		}
+
+		/// @see LaunchBlockProducerProfile
+		public Builder producerProfile(final LaunchBlockProducerProfile producerProfile) {
+			this.producerProfile = Objects.requireNonNull(producerProfile, "producerProfile");
+			return this;
+		}
+
+		/**
+		 * Sets a kafka producer property, overriding the value set by the {@link #producerProfile(LaunchBlockProducerProfile) profile}. <br>
+		 * The connection and serializers are managed by the emitter and can't be overridden.
+		 */
+		public Builder producerProperty(final String key, final String value) {
+			Objects.requireNonNull(key, "key");
+			Objects.requireNonNull(value, "value");
+			if (key.equals("bootstrap.servers") || key.equals("key.serializer") || key.equals("value.serializer")) {
+				throw new IllegalArgumentException("producer property '%s' is managed by the emitter".formatted(key));
+			}
+			this.producerProperties.put(key, value);
+			return this;
+		}
+
+		/// @see LaunchBlockMessageFormat
+		public Builder messageFormat(final LaunchBlockMessageFormat messageFormat) {
+			this.messageFormat = Objects.requireNonNull(messageFormat, "messageFormat");
+			return this;
+		}
+
+		/**
+		 * Sets whether json messages sent without a key are keyed by their `lifecycleId`, `projectIdentifier`
+		 * or `workspaceIdentifier` field, in that order, so messages about the same entity keep their order. <br>
+		 * When disabled, or no such field is present, messages are spread across partitions without any ordering. <br>
+		 * Disabled by default, since keying changes which partition messages are written to.
+		 */
+		public Builder deriveKeys(final boolean deriveKeys) {
+			this.deriveKeys = deriveKeys;
+			return this;
+		}
+
+		/**
+		 * Writes every message to an append-only journal in the directory first, from which it's sent to kafka in the background,
+		 * so sending never waits for kafka and messages aren't lost while it's unreachable. <br>
+		 * Messages still in the journal when the emitter closes are sent by the next emitter using the directory.
+		 * Each directory must only be used by one emitter at a time. Null sends messages to kafka directly.
+		 */
+		public Builder journalDirectory(final Path journalDirectory) {
+			this.journalDirectory = journalDirectory;
+			return this;
+		}
+
+		/**
+		 * Bounds the disk space taken by the journal, applying the {@link #backpressurePolicy(LaunchBlockBackpressurePolicy)}
+		 * once it's full of messages which haven't been sent yet
+		 */
+		public Builder maxJournalBytes(final long maxJournalBytes) {
+			if (maxJournalBytes < 1024 * 1024) {
+				throw new IllegalArgumentException("maxJournalBytes must be at least 1MiB, got " + maxJournalBytes);
+			}
+			this.maxJournalBytes = maxJournalBytes;
+			return this;
+		}
+
+		/// @see LaunchBlockJournalSyncPolicy
+		public Builder journalSyncPolicy(final LaunchBlockJournalSyncPolicy journalSyncPolicy) {
+			this.journalSyncPolicy = Objects.requireNonNull(journalSyncPolicy, "journalSyncPolicy");
+			return this;
+		}
+
+		/// Sets how often the journal is forced to disk with {@link LaunchBlockJournalSyncPolicy#INTERVAL}
+		public Builder journalSyncInterval(final Duration journalSyncInterval) {
+			Objects.requireNonNull(journalSyncInterval, "journalSyncInterval");
+			if (journalSyncInterval.isNegative() || journalSyncInterval.isZero()) {
+				throw new IllegalArgumentException("journalSyncInterval must be positive, got " + journalSyncInterval);
+			}
+			this.journalSyncInterval = journalSyncInterval;
+			return this;
+		}
+
+		public LaunchBlockEmitterSettings build() {
+			return new LaunchBlockEmitterSettings(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,11 @@
+package gg.launchblock.sdk.emitters;
+
+/// When a {@link LaunchBlockMessageEmitter}'s journal forces appended messages to disk
+public enum LaunchBlockJournalSyncPolicy {
+	/// Every message is on disk before sending returns; survives power loss, at the cost of a disk sync per message
+	ALWAYS,
+	/// Messages are forced to disk every {@link LaunchBlockEmitterSettings#getJournalSyncInterval()}, and when flushing or closing
+	INTERVAL,
+	/// Only flushing and closing force messages to disk; otherwise the operating system decides, which survives crashes of the application
+	OS;
+}
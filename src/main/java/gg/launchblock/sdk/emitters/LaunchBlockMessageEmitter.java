@@ -1,23 +1,38 @@
 package gg.launchblock.sdk.emitters;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import gg.launchblock.sdk.exception.LaunchBlockSDKException;
 import gg.launchblock.sdk.exception.LaunchBlockSDKExceptionType;
 import gg.launchblock.sdk.util.ImmutablePair;
+import gg.launchblock.sdk.util.JsonUtil;
 import gg.launchblock.sdk.util.KafkaUtil;
 import gg.launchblock.sdk.util.LaunchBlockSDKConstants;
 import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
 
 public class LaunchBlockMessageEmitter {
 
+	/// Backs {@link #quickSend(String, JsonNode)} and {@link #quickSendAll(Collection)}; created on first use
+	private static volatile LaunchBlockMessageEmitter sharedEmitter;
+
 	/**
-	 * Creates a new emitter, sends the requested message, and closes the emitter. <br>
-	 * Only recommended when sending a very low volume of messages due to
-	 * performance impact of creating a new producer for every message. <br>
-	 *  Consider storing an instance of {@link LaunchBlockMessageEmitter} to use instead.
+	 * Sends the requested message through an emitter shared by the whole process, and flushes it. <br>
+	 * Convenient for occasional messages; an own instance of {@link LaunchBlockMessageEmitter}
+	 * allows sending without waiting for every message to be flushed.
 	 * @see	#quickSendAll(Collection)
 	 */
 	public static void quickSend(final String topic, final JsonNode value) {
@@ -25,27 +40,81 @@ public class LaunchBlockMessageEmitter {
 	}
 
 	/**
-	 * Creates a new emitter, sends the requested messages, and closes the emitter. <br>
-	 * Only recommended when sending a very low volume of messages due to
-	 * performance impact of creating a new producer for every message collection. <br>
-	 * Consider storing an instance of {@link LaunchBlockMessageEmitter} to use instead.
+	 * Sends the requested messages through an emitter shared by the whole process, and flushes it. <br>
+	 * The shared emitter is created on first use and closed when the JVM shuts down.
 	 */
 	public static void quickSendAll(final Collection<ImmutablePair<String, JsonNode>> messages) {
-		LaunchBlockMessageEmitter emitter = new LaunchBlockMessageEmitter();
-		emitter.sendAll(false, messages); // closing flushes regardless
-		emitter.close();
+		getSharedEmitter().sendAll(true, messages);
 	}
 
-	private final KafkaProducer<String, String> kafkaProducer;
+	private static LaunchBlockMessageEmitter getSharedEmitter() {
+		LaunchBlockMessageEmitter emitter = sharedEmitter;
+		if (emitter != null) {
+			return emitter;
+		}
 
-	private boolean active;
+		synchronized (LaunchBlockMessageEmitter.class) {
+			// not created in a static initializer so a failed connection attempt may be retried by the next call
+			if (sharedEmitter == null) {
+				final LaunchBlockMessageEmitter created = new LaunchBlockMessageEmitter();
+				try {
+					Runtime.getRuntime().addShutdownHook(new Thread(created::close, "launchblock-shared-emitter-shutdown"));
+				} catch (IllegalStateException e) {
+					// created while the JVM is already shutting down; quick sends flush anyway, so the emitter just isn't closed
+				}
+				sharedEmitter = created;
+			}
+			return sharedEmitter;
+		}
+	}
 
-	public LaunchBlockMessageEmitter() {
+	/// payload fields a message's key is derived from, in order of preference
+	private static final List<String> KEY_FIELDS = List.of("lifecycleId", "projectIdentifier", "workspaceIdentifier");
+
+	/// longest time closing waits for the journal to finish sending its current batch
+	private static final Duration JOURNAL_CLOSE_TIMEOUT = Duration.ofSeconds(5);
+
+	/// null until connected when sending through a journal
+	private volatile Producer<String, byte[]> kafkaProducer;
+
+	/// null when messages are sent to kafka directly
+	private final LaunchBlockEmitterJournal journal;
+
+	private final LaunchBlockEmitterSettings settings;
+
+	/// permits for records in flight; null when unbounded
+	private final Semaphore inFlightPermits;
+
+	/// read by every sending thread, e.g. handlers dead-lettering messages, so a close is seen right away
+	private volatile boolean active;
+
+	public LaunchBlockMessageEmitter(final LaunchBlockEmitterSettings settings) {
 		this.active = true;
-		this.kafkaProducer = createProducer();
+		this.settings = settings;
+		this.inFlightPermits = settings.getMaxInFlightRecords() > 0 ? new Semaphore(settings.getMaxInFlightRecords()) : null;
+
+		if (settings.getJournalDirectory() != null) {
+			// kafka may be unreachable for now; the journal connects once it has messages to send
+			this.kafkaProducer = null;
+			this.journal = LaunchBlockEmitterJournal.open(settings, this::connectProducer);
+		} else {
+			this.kafkaProducer = createProducer();
+			this.journal = null;
+		}
+	}
+
+	public LaunchBlockMessageEmitter() {
+		this(LaunchBlockEmitterSettings.DEFAULT);
 	}
 
-	public KafkaProducer<String, String> createProducer() {
+	/**
+	 * Creates the producer messages are sent through; called once by the constructor,
+	 * or when sending through a journal, once kafka is reachable. <br>
+	 * May be overridden to send through another producer, such as kafka's `MockProducer`. <br>
+	 * Values are already serialized by the emitter, so the producer takes byte arrays;
+	 * before messages were serialized to bytes, this returned a `KafkaProducer<String, String>`.
+	 */
+	public Producer<String, byte[]> createProducer() {
 		if(!KafkaUtil.isKafkaRunning()) {
 			throw new LaunchBlockSDKException(LaunchBlockSDKExceptionType.KAFKA,
 					"Could not connect to kafka. Make sure your kafka instance is enabled before attempting to emit messages");
@@ -57,15 +126,24 @@ public class LaunchBlockMessageEmitter {
 		final Properties props = new Properties();
 		props.put("bootstrap.servers", LaunchBlockSDKConstants.KAFKA_HOSTNAME+":"+LaunchBlockSDKConstants.KAFKA_PORT);
 		props.put("key.serializer", "org.apache.kafka.common.serialization.StringSerializer");
-		props.put("value.serializer", "org.apache.kafka.common.serialization.StringSerializer");
-		props.put("retries", "1");
+		// values are serialized by the emitter straight to bytes, see JsonUtil#writeValueAsBytes
+		props.put("value.serializer", "org.apache.kafka.common.serialization.ByteArraySerializer");
 
-		// all acknowledgments -> generally guarantee writes are successful (slightly worse latency than acks=1 or 0)
-		props.put("acks", "all");
+		// the default profile uses all acknowledgments -> generally guarantee writes are successful (slightly worse latency than acks=1 or 0)
+		settings.getProducerProfile().applyTo(props);
+		props.putAll(settings.getProducerProperties());
 
 		return new KafkaProducer<>(props);
 	}
 
+	/// Creates the producer of an emitter sending through a journal the first time it's needed
+	private synchronized Producer<String, byte[]> connectProducer() {
+		if (kafkaProducer == null) {
+			kafkaProducer = createProducer();
+		}
+		return kafkaProducer;
+	}
+
 	/**
 	 * uses {@link LaunchBlockMessageEmitter#sendAll(boolean, Collection)} with a one element collection
 	 */
@@ -83,30 +161,200 @@ public class LaunchBlockMessageEmitter {
 
 	/**
 	 * Emits kafka messages for each of the given topic-value pairs
-	 * @param flush whether to send messages immediately
+	 * @param flush whether to send messages immediately, waiting for them to be acknowledged;
+	 * with a journal, only waits for them to be written to disk
 	 * @param messages each pair contains a String representing kafka topic and JsonNode representing value
+	 * @throws LaunchBlockSDKException when flushing, if any of the messages failed to be emitted
 	 */
 	public void sendAll(final boolean flush, final Collection<ImmutablePair<String, JsonNode>> messages) {
+		if(journal != null) {
+			// the journal sends the messages once kafka is reachable, so only those it didn't accept fail here
+			for (ImmutablePair<String, JsonNode> entry : messages) {
+				final CompletableFuture<RecordMetadata> result = sendAsync(entry.getLeft(), entry.getRight());
+				if(flush && result.isCompletedExceptionally()) {
+					join(result);
+				}
+			}
+			if(flush) {
+				journal.sync();
+			}
+			return;
+		}
+
+		final CompletableFuture<List<RecordMetadata>> result = sendAllAsync(messages);
+
+		if(flush) {
+			getKafkaProducer().flush();
+			join(result);
+		}
+	}
+
+	/// waits for the future, reporting failures on the sending thread rather than the producer's I/O thread
+	private static void join(final CompletableFuture<?> result) {
+		try {
+			result.join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof LaunchBlockSDKException sdkException ? sdkException
+					: new LaunchBlockSDKException(e.getCause(), LaunchBlockSDKExceptionType.KAFKA, "Failed to emit messages");
+		}
+	}
+
+	/**
+	 * Emits a kafka message without waiting for it to be written, keyed as described in {@link #sendAsync(String, String, Object, Map)}
+	 * @see #sendAsync(String, String, Object, Map)
+	 */
+	public CompletableFuture<RecordMetadata> sendAsync(final String topic, final Object value) {
+		return sendAsync(topic, null, value, Map.of());
+	}
+
+	/**
+	 * Emits a kafka message with the given key without waiting for it to be written
+	 * @see #sendAsync(String, String, Object, Map)
+	 */
+	public CompletableFuture<RecordMetadata> sendAsync(final String topic, final String key, final Object value) {
+		return sendAsync(topic, key, value, Map.of());
+	}
+
+	/**
+	 * Emits a kafka message without waiting for it to be written. <br>
+	 * Messages with the same key are written to the same partition, so they are received in the order they were sent.
+	 * The future is completed on the producer's I/O thread, so dependent actions should not block.
+	 * @param key the message's key; when null and {@link LaunchBlockEmitterSettings#isDeriveKeys() deriving keys},
+	 * taken from the `lifecycleId`, `projectIdentifier` or `workspaceIdentifier` field of a json tree value
+	 * @param value a json tree, or any object jackson can serialize; encoded in the emitter's {@link LaunchBlockEmitterSettings#getMessageFormat() format}
+	 * @param headers headers of the message, with values encoded as UTF-8
+	 * @return a future completing with the message's metadata once kafka acknowledged it,
+	 * or failing with a {@link LaunchBlockSDKException} if it could not be emitted
+	 */
+	public CompletableFuture<RecordMetadata> sendAsync(final String topic, final String key, final Object value, final Map<String, String> headers) {
 		if(isClosed()) {
 			throw new LaunchBlockSDKException(LaunchBlockSDKExceptionType.KAFKA, "Attempted to use a closed message emitter object");
 		}
 
-		for (ImmutablePair<String, JsonNode> entry : messages) {
+		final byte[] serialized;
+		try {
+			serialized = JsonUtil.writeValueAsBytes(value, settings.getMessageFormat());
+		} catch (JsonProcessingException e) {
+			return CompletableFuture.failedFuture(new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.INVALID_JSON,
+					"Failed to serialize a message in topic '%s'".formatted(topic)));
+		}
+
+		return send(topic, key != null ? key : deriveKey(value), serialized, headers, value);
+	}
+
+	/**
+	 * Emits an already serialized kafka message as-is, without waiting for it to be written,
+	 * e.g. to forward a received message. Its key is never derived.
+	 * @param value the message's content, or null for a tombstone
+	 * @see #sendAsync(String, String, Object, Map)
+	 */
+	public CompletableFuture<RecordMetadata> sendBytesAsync(final String topic, final String key, final byte[] value, final Map<String, String> headers) {
+		if(isClosed()) {
+			throw new LaunchBlockSDKException(LaunchBlockSDKExceptionType.KAFKA, "Attempted to use a closed message emitter object");
+		}
+
+		return send(topic, key, value, headers, value == null ? "tombstone" : "%d bytes".formatted(value.length));
+	}
+
+	/// @param description describes the message in errors
+	private CompletableFuture<RecordMetadata> send(final String topic, final String key, final byte[] value,
+												   final Map<String, String> headers, final Object description) {
+		if(journal != null) {
+			// bounded by the journal's size rather than the records in flight
+			return journal.append(topic, key, value, headers);
+		}
+
+		if(!acquireInFlightPermit()) {
+			return CompletableFuture.failedFuture(new LaunchBlockSDKException(LaunchBlockSDKExceptionType.KAFKA,
+					"Rejected a message in topic '%s' since %d records are already in flight".formatted(topic, settings.getMaxInFlightRecords())));
+		}
+
+		final CompletableFuture<RecordMetadata> result = new CompletableFuture<>();
+
+		try {
 			// we use KafkaProducer's send() and flush() instead of its transaction system as atomicity is not crucial,
 			// and the slightly higher performance of this method is a nice bonus
-
-			getKafkaProducer().send(new ProducerRecord<>(entry.getLeft(), entry.getRight().toString()),
+			getKafkaProducer().send(new ProducerRecord<>(topic, null, key, value, toRecordHeaders(headers)),
 					// callback when the send action is eventually executed
 					(recordMetadata, e) -> {
-						if(e == null) return;
-						throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.KAFKA, "Failed to emit a message in topic '%s'; '%s'"
-								.formatted(entry.getLeft(), entry.getRight().toString()));
+						releaseInFlightPermit();
+						if(e == null) {
+							result.complete(recordMetadata);
+							return;
+						}
+						result.completeExceptionally(new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.KAFKA, "Failed to emit a message in topic '%s'; '%s'"
+								.formatted(topic, description)));
 					});
+		} catch (RuntimeException e) {
+			// the record never reached the producer's buffer, so the callback won't run
+			releaseInFlightPermit();
+			result.completeExceptionally(new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.KAFKA, "Failed to emit a message in topic '%s'; '%s'"
+					.formatted(topic, description)));
+		}
+
+		return result;
+	}
 
+	/**
+	 * Emits kafka messages for each of the given topic-value pairs without waiting for them to be written
+	 * @return a future completing with the metadata of every message, in order, once all were acknowledged;
+	 * or failing if any of them could not be emitted
+	 * @see #sendAsync(String, Object)
+	 */
+	public CompletableFuture<List<RecordMetadata>> sendAllAsync(final Collection<ImmutablePair<String, JsonNode>> messages) {
+		final List<CompletableFuture<RecordMetadata>> results = new ArrayList<>(messages.size());
+		for (ImmutablePair<String, JsonNode> entry : messages) {
+			results.add(sendAsync(entry.getLeft(), entry.getRight()));
 		}
 
-		if(flush) {
-			getKafkaProducer().flush();
+		return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+				.thenApply(unused -> results.stream().map(CompletableFuture::join).toList());
+	}
+
+	/// @return the value of the first present key field of a json tree value, or null when keys aren't derived
+	private String deriveKey(final Object value) {
+		if(!settings.isDeriveKeys() || !(value instanceof JsonNode json)) {
+			return null;
+		}
+
+		// most to least specific entity, matching LaunchBlockEvent#getOrderingKey of the built-in events
+		for (String field : KEY_FIELDS) {
+			final JsonNode node = json.get(field);
+			if(node != null && node.isValueNode() && !node.isNull()) {
+				return node.asText();
+			}
+		}
+		return null;
+	}
+
+	private static List<Header> toRecordHeaders(final Map<String, String> headers) {
+		final List<Header> recordHeaders = new ArrayList<>(headers.size());
+		headers.forEach((name, value) -> recordHeaders.add(new RecordHeader(name, value.getBytes(StandardCharsets.UTF_8))));
+		return recordHeaders;
+	}
+
+	/// @return whether a record may be sent according to the in-flight bound and backpressure policy
+	private boolean acquireInFlightPermit() {
+		if(inFlightPermits == null) {
+			return true;
+		}
+
+		if(settings.getBackpressurePolicy() == LaunchBlockBackpressurePolicy.REJECT) {
+			return inFlightPermits.tryAcquire();
+		}
+
+		try {
+			inFlightPermits.acquire();
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.KAFKA, "Interrupted while waiting to emit a message");
+		}
+	}
+
+	private void releaseInFlightPermit() {
+		if(inFlightPermits != null) {
+			inFlightPermits.release();
 		}
 	}
 
@@ -116,19 +364,53 @@ public class LaunchBlockMessageEmitter {
 	 */
 	public void close() {
 		this.active = false;
-		getKafkaProducer().close(); // flushes and closes
+
+		if(journal != null) {
+			// messages the journal hasn't sent yet are sent by the next emitter using its directory
+			final boolean stopped = journal.stop(JOURNAL_CLOSE_TIMEOUT);
+			final Producer<String, byte[]> producer = getKafkaProducer();
+			if(!stopped && producer != null) {
+				producer.close(Duration.ZERO); // fails the batch stuck waiting for kafka, so the journal can stop
+			}
+			journal.close();
+		}
+
+		final Producer<String, byte[]> producer = getKafkaProducer();
+		if(producer != null) {
+			producer.close(); // flushes and closes
+		}
 	}
 
-	/// Flushes buffer of the underlying producer
+	/// Flushes buffer of the underlying producer; with a journal, forces appended messages to disk instead
 	public void flush() {
+		if(journal != null) {
+			journal.sync();
+			return;
+		}
 		getKafkaProducer().flush();
 	}
 
+	/// @return the size of the messages in the journal which haven't been acknowledged by kafka yet; 0 without a journal
+	public long getJournalBacklogBytes() {
+		return journal != null ? journal.getBacklogBytes() : 0;
+	}
+
 	public boolean isClosed() {
 		return !active;
 	}
 
-	protected KafkaProducer<String, String> getKafkaProducer() {
+	/// @return the metrics of the underlying kafka producer, such as its send rate and request latency
+	public Map<MetricName, ? extends Metric> getKafkaMetrics() {
+		final Producer<String, byte[]> producer = getKafkaProducer();
+		return producer != null ? producer.metrics() : Map.of();
+	}
+
+	public LaunchBlockEmitterSettings getSettings() {
+		return settings;
+	}
+
+	/// @return the producer messages are sent through; null while an emitter sending through a journal hasn't connected yet
+	protected Producer<String, byte[]> getKafkaProducer() {
 		return this.kafkaProducer;
 	}
 
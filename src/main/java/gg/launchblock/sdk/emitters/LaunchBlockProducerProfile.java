@@ -0,0 +1,67 @@
+package gg.launchblock.sdk.emitters;
+
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Coherent sets of kafka producer properties used by a {@link LaunchBlockMessageEmitter}. <br>
+ * Individual properties may still be overridden through {@link LaunchBlockEmitterSettings.Builder#producerProperty(String, String)}.
+ * @see <a href="https://kafka.apache.org/39/documentation.html#producerconfigs">Producer configs</a>
+ */
+public enum LaunchBlockProducerProfile {
+	/// Acknowledgement by all in-sync replicas and a single retry, leaving everything else at kafka's defaults
+	DEFAULT(Map.of(
+			"acks", "all",
+			"retries", "1"
+	)),
+	/**
+	 * Sends every record as soon as possible, acknowledged by the partition leader only. <br>
+	 * Records may be lost if the leader fails before replicating them.
+	 */
+	LOW_LATENCY(Map.of(
+			"acks", "1",
+			"linger.ms", "0",
+			"compression.type", "none",
+			"enable.idempotence", "false",
+			"max.in.flight.requests.per.connection", "5"
+	)),
+	/**
+	 * Waits briefly to fill large, lz4 compressed batches, sending bursts of records in few requests. <br>
+	 * Idempotence keeps retried batches from being duplicated or reordered.
+	 */
+	HIGH_THROUGHPUT(Map.of(
+			"acks", "all",
+			"linger.ms", "20",
+			"batch.size", "262144",
+			"compression.type", "lz4",
+			"enable.idempotence", "true",
+			"max.in.flight.requests.per.connection", "5"
+	)),
+	/**
+	 * Retries until the delivery timeout with idempotence, so records are written exactly once and in order per partition. <br>
+	 * Batches are zstd compressed, trading some CPU for smaller writes.
+	 */
+	DURABLE(Map.of(
+			"acks", "all",
+			"retries", String.valueOf(Integer.MAX_VALUE),
+			"linger.ms", "5",
+			"compression.type", "zstd",
+			"enable.idempotence", "true",
+			"max.in.flight.requests.per.connection", "5"
+	));
+
+	private final Map<String, String> properties;
+
+	LaunchBlockProducerProfile(final Map<String, String> properties) {
+		this.properties = properties;
+	}
+
+	/// @return the kafka producer properties set by this profile
+	public Map<String, String> getProperties() {
+		return properties;
+	}
+
+	void applyTo(final Properties props) {
+		props.putAll(properties);
+	}
+}
@@ -9,7 +9,9 @@ import java.util.UUID;
 
 public class LaunchBlockEvent {
 
-	private final JsonNode rawContent;
+	public static final LaunchBlockEventSchema SCHEMA = LaunchBlockEventSchema.BASE;
+
+	private final LaunchBlockEventPayload payload;
 
 	private final String topic;
 
@@ -20,29 +22,75 @@ public class LaunchBlockEvent {
 	 * @param rawContent kafka value associated with this event, as json
 	 */
 	public LaunchBlockEvent(final String topic, final JsonNode rawContent) {
+		this(topic, LaunchBlockEventSchema.BASE.decode(rawContent));
+	}
+
+	/**
+	 * @param topic   kafka topic associated with this event
+	 * @param payload kafka value associated with this event, decoded with the schema of the event's class
+	 * @see LaunchBlockEventSchema
+	 */
+	public LaunchBlockEvent(final String topic, final LaunchBlockEventPayload payload) {
 		this.topic = topic;
-		this.rawContent = rawContent;
+		this.payload = payload;
 
-		try {
-			this.workspaceId = UUID.fromString(rawContent.get("workspaceIdentifier").asText());
-		} catch (Exception e) {
-			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.EVENT_HANDLING,
+		this.workspaceId = payload.getUuid("workspaceIdentifier");
+		if (workspaceId == null) {
+			throw new LaunchBlockSDKException(LaunchBlockSDKExceptionType.EVENT_HANDLING,
 					"Attempted to create a LaunchBlockEvent with topic '%s' without a valid workspace identifier attached".formatted(topic));
 		}
 	}
 
+	/**
+	 * @param value a field of this event's payload
+	 * @param description how the field is referred to if it's invalid
+	 * @return `value` if it's present
+	 * @throws LaunchBlockSDKException if the field is missing or holds an invalid value
+	 */
+	protected <T> T requireField(final T value, final String description) {
+		if (value == null) {
+			throw new LaunchBlockSDKException(LaunchBlockSDKExceptionType.EVENT_HANDLING,
+					"Attempted to create a %s with topic '%s' with an invalid %s".formatted(getClass().getSimpleName(), topic, description));
+		}
+		return value;
+	}
+
 	public String getTopic() {
 		return topic;
 	}
 
+	/// @return the kafka value of this event as json; parsed on first use if the event was decoded through its schema
 	public JsonNode getRawContent() {
-		return rawContent;
+		return payload.getRawContent();
+	}
+
+	LaunchBlockEventPayload getPayload() {
+		return payload;
 	}
 
 	public UUID getWorkspaceId() {
 		return workspaceId;
 	}
 
+	/**
+	 * Events sharing an ordering key are always handled in the order they were received,
+	 * even when handlers run concurrently. See {@link gg.launchblock.sdk.event.handling.LaunchBlockExecutionMode#VIRTUAL_THREADS}
+	 * @return the key of the entity this event is about; the workspace unless overridden
+	 */
+	public Object getOrderingKey() {
+		return workspaceId;
+	}
+
+	/**
+	 * Called when this event supersedes an earlier event with the same {@link #getOrderingKey() ordering key} and class
+	 * for {@link gg.launchblock.sdk.event.handling.LaunchBlockEventHandler#coalesce() coalescing} handlers
+	 * @param earlier the event received before this one, itself possibly already coalesced
+	 * @return the event handed to coalescing handlers in place of both; this event unless overridden
+	 */
+	public LaunchBlockEvent coalesce(final LaunchBlockEvent earlier) {
+		return this;
+	}
+
 	public void callEvent(final LaunchBlockEventManager manager) {
 		manager.dispatchEvent(this);
 	}
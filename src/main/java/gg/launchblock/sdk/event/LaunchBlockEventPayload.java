@@ -0,0 +1,109 @@
+package gg.launchblock.sdk.event;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import gg.launchblock.sdk.exception.LaunchBlockSDKException;
+import gg.launchblock.sdk.exception.LaunchBlockSDKExceptionType;
+import gg.launchblock.sdk.util.JsonUtil;
+import gg.launchblock.sdk.util.LifecycleState;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Typed values of a kafka message's fields, decoded according to a {@link LaunchBlockEventSchema}. <br>
+ * Getters return null for fields which are missing or don't hold a valid value of their type.
+ */
+public final class LaunchBlockEventPayload {
+
+	private final LaunchBlockEventSchema schema;
+
+	private final Object[] values;
+
+	/// the message the values were decoded from; null when decoded from a json tree
+	private final byte[] json;
+
+	/// parsed from `json`, or derived from `base`, on first use when not provided
+	private volatile JsonNode rawContent;
+
+	/// the payload this one replaces a field of; null unless created through {@link #with(String, LaunchBlockEventSchema.FieldType, Object)}
+	private final LaunchBlockEventPayload base;
+
+	/// the field replaced in `base`
+	private final String replacedField;
+
+	LaunchBlockEventPayload(final LaunchBlockEventSchema schema, final Object[] values, final byte[] json, final JsonNode rawContent) {
+		this(schema, values, json, rawContent, null, null);
+	}
+
+	private LaunchBlockEventPayload(final LaunchBlockEventSchema schema, final Object[] values, final byte[] json, final JsonNode rawContent,
+									final LaunchBlockEventPayload base, final String replacedField) {
+		this.schema = schema;
+		this.values = values;
+		this.json = json;
+		this.rawContent = rawContent;
+		this.base = base;
+		this.replacedField = replacedField;
+	}
+
+	/**
+	 * Copies the decoded values without touching any json, e.g. to summarize several events
+	 * @return a payload whose field holds the given value instead
+	 */
+	LaunchBlockEventPayload with(final String field, final LaunchBlockEventSchema.FieldType type, final Object value) {
+		final Object[] replaced = values.clone();
+		replaced[schema.indexOf(field, type)] = value;
+		return new LaunchBlockEventPayload(schema, replaced, null, null, this, field);
+	}
+
+	public String getString(final String field) {
+		return (String) values[schema.indexOf(field, LaunchBlockEventSchema.FieldType.STRING)];
+	}
+
+	public UUID getUuid(final String field) {
+		return (UUID) values[schema.indexOf(field, LaunchBlockEventSchema.FieldType.UUID)];
+	}
+
+	public LifecycleState getLifecycleState(final String field) {
+		return (LifecycleState) values[schema.indexOf(field, LaunchBlockEventSchema.FieldType.LIFECYCLE_STATE)];
+	}
+
+	/// @return the whole message as a json tree, parsed the first time it is requested
+	public JsonNode getRawContent() {
+		JsonNode rawContent = this.rawContent;
+		if (rawContent == null && base != null) {
+			rawContent = deriveRawContent();
+			this.rawContent = rawContent;
+		} else if (rawContent == null && json != null) {
+			try {
+				rawContent = JsonUtil.readTree(json);
+			} catch (IOException e) {
+				throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.INVALID_JSON,
+						"Could not process a decoded event payload into a json node");
+			}
+			this.rawContent = rawContent;
+		}
+		return rawContent;
+	}
+
+	/// @return a copy of the base payload's json with the replaced field's value, or null if the base has none
+	private JsonNode deriveRawContent() {
+		if (!(base.getRawContent() instanceof ObjectNode baseContent)) {
+			return null;
+		}
+
+		final ObjectNode derived = baseContent.deepCopy();
+		final Object value = values[schema.indexOf(replacedField, schema.typeOf(replacedField))];
+		if (value == null) {
+			derived.putNull(replacedField);
+		} else {
+			derived.put(replacedField, value instanceof LifecycleState state ? state.name() : value.toString());
+		}
+		return derived;
+	}
+
+	public LaunchBlockEventSchema getSchema() {
+		return schema;
+	}
+
+}
@@ -0,0 +1,265 @@
+package gg.launchblock.sdk.event;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import gg.launchblock.sdk.util.JsonUtil;
+import gg.launchblock.sdk.util.LifecycleState;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Declares the json fields an event reads, so they can be decoded straight into typed values
+ * while streaming through a kafka message, without building a json tree. <br>
+ * An event class opts in by declaring its own {@code public static final LaunchBlockEventSchema SCHEMA}
+ * and a public constructor accepting {@code (String, LaunchBlockEventPayload)}.
+ * Every schema includes the {@code workspaceIdentifier} read by {@link LaunchBlockEvent}.
+ */
+public final class LaunchBlockEventSchema {
+
+	/// name of the static field holding an event class's schema
+	public static final String FIELD_NAME = "SCHEMA";
+
+	/// the fields of {@link LaunchBlockEvent} itself
+	public static final LaunchBlockEventSchema BASE = builder().build();
+
+	private static final ClassValue<LaunchBlockEventSchema> DECLARED_SCHEMAS = new ClassValue<>() {
+		@Override
+		protected LaunchBlockEventSchema computeValue(final Class<?> eventClass) {
+			try {
+				// only schemas declared by the class itself; a subclass inheriting one may read more fields
+				final Field field = eventClass.getDeclaredField(FIELD_NAME);
+				if (!Modifier.isStatic(field.getModifiers()) || !Modifier.isPublic(field.getModifiers())
+						|| field.getType() != LaunchBlockEventSchema.class) {
+					return null;
+				}
+				eventClass.getConstructor(String.class, LaunchBlockEventPayload.class);
+				return (LaunchBlockEventSchema) field.get(null);
+			} catch (NoSuchFieldException | NoSuchMethodException | IllegalAccessException e) {
+				return null;
+			}
+		}
+	};
+
+	public enum FieldType {
+		STRING,
+		UUID,
+		/// a {@link LifecycleState} name in any case
+		LIFECYCLE_STATE
+	}
+
+	private final Map<String, Integer> indices;
+
+	private final FieldType[] types;
+
+	private LaunchBlockEventSchema(final List<String> names, final List<FieldType> types) {
+		this.indices = new HashMap<>();
+		for (int i = 0; i < names.size(); i++) {
+			this.indices.put(names.get(i), i);
+		}
+		this.types = types.toArray(new FieldType[0]);
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/// @return the schema declared by the event class, or null if it only supports being constructed from a json tree
+	public static LaunchBlockEventSchema of(final Class<? extends LaunchBlockEvent> eventClass) {
+		return DECLARED_SCHEMAS.get(eventClass);
+	}
+
+	/**
+	 * Streams through a json object, decoding every declared top-level field and skipping all others
+	 * @param json UTF-8 encoded json or Smile object
+	 */
+	public LaunchBlockEventPayload decode(final byte[] json) throws IOException {
+		final Object[] values = new Object[types.length];
+
+		try (JsonParser parser = JsonUtil.createParser(json)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new IOException("Expected a json object");
+			}
+
+			String fieldName;
+			while ((fieldName = parser.nextFieldName()) != null) {
+				final JsonToken token = parser.nextToken();
+				final Integer index = indices.get(fieldName);
+
+				if (index == null || !token.isScalarValue() || token == JsonToken.VALUE_NULL) {
+					parser.skipChildren();
+					continue;
+				}
+
+				values[index] = decodeValue(types[index], parser);
+			}
+
+			if (parser.currentToken() != JsonToken.END_OBJECT) {
+				throw new IOException("Unexpected end of json object");
+			}
+		}
+
+		return new LaunchBlockEventPayload(this, values, json, null);
+	}
+
+	/// Reads the declared fields from an already parsed json tree
+	public LaunchBlockEventPayload decode(final JsonNode rawContent) {
+		final Object[] values = new Object[types.length];
+
+		if (rawContent != null) {
+			indices.forEach((name, index) -> {
+				final JsonNode node = rawContent.get(name);
+				if (node != null && !node.isNull()) {
+					values[index] = decodeValue(types[index], node.asText());
+				}
+			});
+		}
+
+		return new LaunchBlockEventPayload(this, values, null, rawContent);
+	}
+
+	/// @return the index of the value of the field in decoded payloads
+	int indexOf(final String name, final FieldType type) {
+		final Integer index = indices.get(name);
+		if (index == null || types[index] != type) {
+			throw new IllegalArgumentException("Field '%s' of type %s is not declared in this schema".formatted(name, type));
+		}
+		return index;
+	}
+
+	/// @return the type of a declared field
+	FieldType typeOf(final String name) {
+		final Integer index = indices.get(name);
+		if (index == null) {
+			throw new IllegalArgumentException("Field '%s' is not declared in this schema".formatted(name));
+		}
+		return types[index];
+	}
+
+	/// @return the decoded value, or null if the text isn't valid for the field's type
+	private static Object decodeValue(final FieldType type, final JsonParser parser) throws IOException {
+		if (type == FieldType.STRING) {
+			return parser.getText();
+		}
+
+		// decode from the parser's buffer to avoid creating a string per value
+		final char[] text = parser.getTextCharacters();
+		final int offset = parser.getTextOffset();
+		final int length = parser.getTextLength();
+
+		if (type == FieldType.UUID) {
+			final UUID uuid = parseCanonicalUuid(text, offset, length);
+			return uuid != null ? uuid : decodeValue(type, new String(text, offset, length));
+		}
+
+		for (LifecycleState state : LifecycleState.values()) {
+			if (equalsIgnoreCase(state.name(), text, offset, length)) {
+				return state;
+			}
+		}
+		return null;
+	}
+
+	private static Object decodeValue(final FieldType type, final String text) {
+		try {
+			return switch (type) {
+				case STRING -> text;
+				case UUID -> UUID.fromString(text);
+				case LIFECYCLE_STATE -> LifecycleState.valueOf(text.toUpperCase());
+			};
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/// @return the uuid in its canonical 8-4-4-4-12 form, or null if the text isn't in that form
+	private static UUID parseCanonicalUuid(final char[] text, final int offset, final int length) {
+		if (length != 36) {
+			return null;
+		}
+
+		long mostSignificant = 0;
+		long leastSignificant = 0;
+		int digits = 0;
+
+		for (int i = 0; i < 36; i++) {
+			final char c = text[offset + i];
+			if (i == 8 || i == 13 || i == 18 || i == 23) {
+				if (c != '-') {
+					return null;
+				}
+				continue;
+			}
+
+			final int digit = Character.digit(c, 16);
+			if (digit < 0) {
+				return null;
+			}
+
+			if (digits++ < 16) {
+				mostSignificant = (mostSignificant << 4) | digit;
+			} else {
+				leastSignificant = (leastSignificant << 4) | digit;
+			}
+		}
+
+		return new UUID(mostSignificant, leastSignificant);
+	}
+
+	private static boolean equalsIgnoreCase(final String name, final char[] text, final int offset, final int length) {
+		if (name.length() != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (Character.toUpperCase(text[offset + i]) != name.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public static class Builder {
+
+		private final List<String> names = new ArrayList<>();
+
+		private final List<FieldType> types = new ArrayList<>();
+
+		private Builder() {
+			uuid("workspaceIdentifier");
+		}
+
+		public Builder string(final String name) {
+			return field(name, FieldType.STRING);
+		}
+
+		public Builder uuid(final String name) {
+			return field(name, FieldType.UUID);
+		}
+
+		public Builder lifecycleState(final String name) {
+			return field(name, FieldType.LIFECYCLE_STATE);
+		}
+
+		public Builder field(final String name, final FieldType type) {
+			if (names.contains(name)) {
+				throw new IllegalArgumentException("Field '%s' is already declared".formatted(name));
+			}
+			names.add(name);
+			types.add(type);
+			return this;
+		}
+
+		public LaunchBlockEventSchema build() {
+			return new LaunchBlockEventSchema(names, types);
+		}
+
+	}
+
+}
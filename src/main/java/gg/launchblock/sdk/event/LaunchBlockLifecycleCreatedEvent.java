@@ -1,8 +1,6 @@
 package gg.launchblock.sdk.event;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import gg.launchblock.sdk.exception.LaunchBlockSDKException;
-import gg.launchblock.sdk.exception.LaunchBlockSDKExceptionType;
 
 import java.util.UUID;
 
@@ -14,31 +12,28 @@ public class LaunchBlockLifecycleCreatedEvent extends LaunchBlockEvent {
 
 	private final UUID environmentIdentifier;
 
+	public static final LaunchBlockEventSchema SCHEMA = LaunchBlockEventSchema.builder()
+			.uuid("environmentIdentifier")
+			.uuid("projectIdentifier")
+			.uuid("lifecycleId")
+			.build();
+
 	public LaunchBlockLifecycleCreatedEvent(final String topic, final JsonNode rawContent) {
-		super(topic, rawContent);
-
-		try {
-			environmentIdentifier = UUID.fromString(rawContent.get("environmentIdentifier").asText());
-		} catch (Exception e) {
-			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.EVENT_HANDLING,
-					"Attempted to create a %s with topic '%s' with an invalid environment identifier".formatted(getClass().getSimpleName(), topic));
-		}
-
-		try {
-			projectIdentifier = UUID.fromString(rawContent.get("projectIdentifier").asText());
-		} catch (Exception e) {
-			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.EVENT_HANDLING,
-					"Attempted to create a %s with topic '%s' with an invalid project identifier".formatted(getClass().getSimpleName(), topic));
-		}
-
-		try {
-			lifecycleId = UUID.fromString(rawContent.get("lifecycleId").asText());
-		} catch (Exception e) {
-			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.EVENT_HANDLING,
-					"Attempted to create a %s with topic '%s' with an invalid lifecycle identifier".formatted(getClass().getSimpleName(), topic));
-		}
+		this(topic, SCHEMA.decode(rawContent));
+	}
 
+	public LaunchBlockLifecycleCreatedEvent(final String topic, final LaunchBlockEventPayload payload) {
+		super(topic, payload);
 
+		environmentIdentifier = requireField(payload.getUuid("environmentIdentifier"), "environment identifier");
+		projectIdentifier = requireField(payload.getUuid("projectIdentifier"), "project identifier");
+		lifecycleId = requireField(payload.getUuid("lifecycleId"), "lifecycle identifier");
+	}
+
+	/// events of the same lifecycle are handled in order
+	@Override
+	public Object getOrderingKey() {
+		return lifecycleId;
 	}
 
 	public UUID getLifecycleId() {
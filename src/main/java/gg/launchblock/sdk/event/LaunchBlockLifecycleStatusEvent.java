@@ -1,8 +1,6 @@
 package gg.launchblock.sdk.event;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import gg.launchblock.sdk.exception.LaunchBlockSDKException;
-import gg.launchblock.sdk.exception.LaunchBlockSDKExceptionType;
 import gg.launchblock.sdk.util.LifecycleState;
 
 import java.util.UUID;
@@ -19,45 +17,52 @@ public class LaunchBlockLifecycleStatusEvent extends LaunchBlockEvent {
 
 	private final LifecycleState newState;
 
+	public static final LaunchBlockEventSchema SCHEMA = LaunchBlockEventSchema.builder()
+			.uuid("environmentIdentifier")
+			.uuid("projectIdentifier")
+			.uuid("lifecycleId")
+			.lifecycleState("oldState")
+			.lifecycleState("newState")
+			.build();
+
 	public LaunchBlockLifecycleStatusEvent(final String topic, final JsonNode rawContent) {
-		super(topic, rawContent);
+		this(topic, SCHEMA.decode(rawContent));
+	}
 
-		try {
-			environmentIdentifier = UUID.fromString(rawContent.get("environmentIdentifier").asText());
-		} catch (Exception e) {
-			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.EVENT_HANDLING,
-					"Attempted to create a %s with topic '%s' with an invalid environment identifier".formatted(getClass().getSimpleName(), topic));
-		}
+	public LaunchBlockLifecycleStatusEvent(final String topic, final LaunchBlockEventPayload payload) {
+		super(topic, payload);
 
-		try {
-			projectIdentifier = UUID.fromString(rawContent.get("projectIdentifier").asText());
-		} catch (Exception e) {
-			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.EVENT_HANDLING,
-					"Attempted to create a %s with topic '%s' with an invalid project identifier".formatted(getClass().getSimpleName(), topic));
-		}
+		environmentIdentifier = requireField(payload.getUuid("environmentIdentifier"), "environment identifier");
+		projectIdentifier = requireField(payload.getUuid("projectIdentifier"), "project identifier");
+		lifecycleId = requireField(payload.getUuid("lifecycleId"), "lifecycle identifier");
+		oldState = requireField(payload.getLifecycleState("oldState"), "old state");
+		newState = requireField(payload.getLifecycleState("newState"), "new state");
+	}
 
-		try {
-			lifecycleId = UUID.fromString(rawContent.get("lifecycleId").asText());
-		} catch (Exception e) {
-			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.EVENT_HANDLING,
-					"Attempted to create a %s with topic '%s' with an invalid lifecycle identifier".formatted(getClass().getSimpleName(), topic));
-		}
+	/// events of the same lifecycle are handled in order
+	@Override
+	public Object getOrderingKey() {
+		return lifecycleId;
+	}
 
-		try {
-			oldState = LifecycleState.valueOf(rawContent.get("oldState").asText().toUpperCase());
-		} catch (Exception e) {
-			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.EVENT_HANDLING,
-					"Attempted to create a %s with topic '%s' with an invalid old state".formatted(getClass().getSimpleName(), topic));
+	/**
+	 * Built from the decoded fields, so no json tree is parsed; the summary's raw content is only derived when requested
+	 * @return a transition from the old state of `earlier` to the new state of this event, as if the lifecycle changed once
+	 */
+	@Override
+	public LaunchBlockEvent coalesce(final LaunchBlockEvent earlier) {
+		// subclasses may read more fields, which the summary wouldn't carry
+		if (getClass() != LaunchBlockLifecycleStatusEvent.class || earlier.getClass() != LaunchBlockLifecycleStatusEvent.class) {
+			return this;
 		}
 
-		try {
-			newState = LifecycleState.valueOf(rawContent.get("newState").asText().toUpperCase());
-		} catch (Exception e) {
-			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.EVENT_HANDLING,
-					"Attempted to create a %s with topic '%s' with an invalid new state".formatted(getClass().getSimpleName(), topic));
+		final LaunchBlockLifecycleStatusEvent earlierStatus = (LaunchBlockLifecycleStatusEvent) earlier;
+		if (!earlierStatus.lifecycleId.equals(lifecycleId) || earlierStatus.oldState == oldState) {
+			return this;
 		}
 
-
+		return new LaunchBlockLifecycleStatusEvent(getTopic(),
+				getPayload().with("oldState", LaunchBlockEventSchema.FieldType.LIFECYCLE_STATE, earlierStatus.oldState));
 	}
 
 	public UUID getLifecycleId() {
@@ -1,8 +1,6 @@
 package gg.launchblock.sdk.event;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import gg.launchblock.sdk.exception.LaunchBlockSDKException;
-import gg.launchblock.sdk.exception.LaunchBlockSDKExceptionType;
 
 import java.util.UUID;
 
@@ -14,37 +12,34 @@ public class LaunchBlockProjectCreatedEvent extends LaunchBlockEvent {
 
 	private final UUID environmentId;
 
+	public static final LaunchBlockEventSchema SCHEMA = LaunchBlockEventSchema.builder()
+			.string("projectName")
+			.uuid("environmentIdentifier")
+			.uuid("projectIdentifier")
+			.build();
+
 	public LaunchBlockProjectCreatedEvent(final String topic, final JsonNode rawContent) {
-		super(topic, rawContent);
-
-		try {
-			projectName = rawContent.get("projectName").asText();
-		} catch (Exception e) {
-			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.EVENT_HANDLING,
-					"Attempted to create a LaunchBlockProjectCreatedEvent with topic '%s' with an invalid project name".formatted(topic));
-		}
-
-		try {
-			environmentId = UUID.fromString(rawContent.get("environmentIdentifier").asText());
-		} catch (Exception e) {
-			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.EVENT_HANDLING,
-					"Attempted to create a LaunchBlockProjectCreatedEvent with topic '%s' with an invalid environment identifier".formatted(topic));
-		}
-
-		try {
-			projectId = UUID.fromString(rawContent.get("projectIdentifier").asText());
-		} catch (Exception e) {
-			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.EVENT_HANDLING,
-					"Attempted to create a LaunchBlockProjectCreatedEvent with topic '%s' with an invalid project identifier".formatted(topic));
-		}
+		this(topic, SCHEMA.decode(rawContent));
+	}
 
+	public LaunchBlockProjectCreatedEvent(final String topic, final LaunchBlockEventPayload payload) {
+		super(topic, payload);
 
+		projectName = requireField(payload.getString("projectName"), "project name");
+		environmentId = requireField(payload.getUuid("environmentIdentifier"), "environment identifier");
+		projectId = requireField(payload.getUuid("projectIdentifier"), "project identifier");
 	}
 
 	public String getProjectName() {
 		return projectName;
 	}
 
+	/// events of the same project are handled in order
+	@Override
+	public Object getOrderingKey() {
+		return projectId;
+	}
+
 	public UUID getProjectId() {
 		return projectId;
 	}
@@ -0,0 +1,17 @@
+package gg.launchblock.sdk.event.handling;
+
+import gg.launchblock.sdk.event.LaunchBlockEvent;
+
+import java.util.List;
+
+/**
+ * Calls a single batch {@link LaunchBlockEventHandler} method, accepting a {@link List} of events, on its listener. <br>
+ * Implementations are generated once per handler when a listener is registered,
+ * so dispatching a batch does not go through reflection.
+ */
+@FunctionalInterface
+public interface LaunchBlockBatchEventInvoker {
+
+	void invoke(LaunchBlockEventListener listener, List<? extends LaunchBlockEvent> events) throws Throwable;
+
+}
@@ -0,0 +1,13 @@
+package gg.launchblock.sdk.event.handling;
+
+/// How a {@link LaunchBlockKafkaConsumerConnection} commits the offsets of handled events
+public enum LaunchBlockCommitMode {
+	/// Every commit waits for the broker's acknowledgement
+	SYNC,
+	/**
+	 * Commits are sent without waiting for the broker, with a synchronous commit every
+	 * {@link LaunchBlockEventManagerSettings#getSyncCommitInterval()} and when partitions are revoked or the connection closes. <br>
+	 * A failed asynchronous commit is superseded by the next one, so events are still delivered at least once.
+	 */
+	ASYNC;
+}
@@ -0,0 +1,13 @@
+package gg.launchblock.sdk.event.handling;
+
+/// Creates the kafka consumer connection of a {@link LaunchBlockEventManager}, which starts it right away
+@FunctionalInterface
+interface LaunchBlockConnectionFactory {
+
+	/// connects to kafka once started; see {@link LaunchBlockKafkaConsumerConnection#start()}
+	LaunchBlockConnectionFactory KAFKA = LaunchBlockKafkaConsumerConnection::new;
+
+	LaunchBlockKafkaConsumerConnection create(String groupId, LaunchBlockEventManagerSettings settings,
+											  LaunchBlockRecordProcessor recordProcessor, LaunchBlockDeduplicator deduplicator);
+
+}
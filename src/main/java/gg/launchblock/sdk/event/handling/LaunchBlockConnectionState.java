@@ -0,0 +1,13 @@
+package gg.launchblock.sdk.event.handling;
+
+/// Health of a {@link LaunchBlockKafkaConsumerConnection} and the {@link LaunchBlockEventManager} it belongs to
+public enum LaunchBlockConnectionState {
+	/// Started, but not every consumer has polled successfully yet
+	STARTING,
+	/// Every consumer is polling
+	RUNNING,
+	/// At least one consumer failed and is waiting to reconnect; the others keep polling
+	DEGRADED,
+	/// Not started yet, or closed
+	STOPPED;
+}
@@ -0,0 +1,71 @@
+package gg.launchblock.sdk.event.handling;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recognizes messages kafka delivers again after they have been handled, e.g. after a failed commit or a reconnect,
+ * by the offset up to which every message of a partition has been handled. <br>
+ * Marks only advance once a batch completed, so messages which were polled but not handled are always delivered again.
+ * Only one entry is kept per partition, and entries of partitions nothing was handled from within the window expire.
+ * Partitions may move between consumers of a manager, so entries are shared by all of them.
+ */
+final class LaunchBlockDeduplicator {
+
+	private final long windowNanos;
+
+	private final Map<TopicPartition, HighWaterMark> highWaterMarks = new ConcurrentHashMap<>();
+
+	/// when expired entries were last removed, per {@link System#nanoTime()}
+	private volatile long lastExpiry = System.nanoTime();
+
+	LaunchBlockDeduplicator(final long windowNanos) {
+		this.windowNanos = windowNanos;
+	}
+
+	/**
+	 * @param now the time the message was polled at, per {@link System#nanoTime()}
+	 * @return whether every message of the partition up to and including this one was handled within the window
+	 */
+	boolean isDuplicate(final ConsumerRecord<String, byte[]> message, final long now) {
+		final HighWaterMark mark = highWaterMarks.get(new TopicPartition(message.topic(), message.partition()));
+		return mark != null && message.offset() < mark.nextOffset() && now - mark.handledAt() < windowNanos;
+	}
+
+	/// Advances the marks of partitions whose messages have been handled up to the given offsets, before they are committed
+	void recordHandled(final Map<TopicPartition, OffsetAndMetadata> handledOffsets) {
+		final long now = System.nanoTime();
+		handledOffsets.forEach((partition, offset) -> highWaterMarks.merge(partition, new HighWaterMark(offset.offset(), now),
+				(previous, handled) -> handled.nextOffset() >= previous.nextOffset() ? handled : previous));
+	}
+
+	/**
+	 * Resets the partition's entry when it's assigned to a consumer starting at `position`. <br>
+	 * Only messages from the position up to the mark stay recognized: they have been handled by this manager,
+	 * but their commit was lost.
+	 */
+	void reset(final TopicPartition partition, final long position) {
+		highWaterMarks.computeIfPresent(partition, (unused, mark) -> mark.nextOffset() > position ? mark : null);
+	}
+
+	/// Removes the entries of partitions nothing was handled from within the window, at most once per window
+	void expire(final long now) {
+		if (now - lastExpiry < windowNanos) {
+			return;
+		}
+		lastExpiry = now;
+		highWaterMarks.values().removeIf(mark -> now - mark.handledAt() >= windowNanos);
+	}
+
+	/**
+	 * @param nextOffset offset after the last handled message of the partition
+	 * @param handledAt when the mark last advanced, per {@link System#nanoTime()}
+	 */
+	private record HighWaterMark(long nextOffset, long handledAt) {
+	}
+
+}
@@ -0,0 +1,74 @@
+package gg.launchblock.sdk.event.handling;
+
+import java.util.*;
+
+/**
+ * Immutable view of everything a {@link LaunchBlockEventManager} needs to turn kafka messages into dispatched events:
+ * its listeners, their handlers and its topic bindings. <br>
+ * Changes create a new snapshot which is published as a whole, so consumer threads read a consistent state without locking.
+ */
+final class LaunchBlockDispatchSnapshot {
+
+	static final LaunchBlockDispatchSnapshot EMPTY = new LaunchBlockDispatchSnapshot(List.of(), LaunchBlockHandlerTable.EMPTY, Map.of());
+
+	private final List<LaunchBlockEventListener> listeners;
+
+	private final LaunchBlockHandlerTable handlerTable;
+
+	private final Map<String, LaunchBlockTopicBinding> topicBindings;
+
+	private LaunchBlockDispatchSnapshot(final List<LaunchBlockEventListener> listeners, final LaunchBlockHandlerTable handlerTable,
+										final Map<String, LaunchBlockTopicBinding> topicBindings) {
+		this.listeners = listeners;
+		this.handlerTable = handlerTable;
+		this.topicBindings = topicBindings;
+	}
+
+	/// @return a new snapshot with the given listeners and their compiled handlers added
+	LaunchBlockDispatchSnapshot withListeners(final Collection<? extends LaunchBlockEventListener> added,
+											  final Collection<LaunchBlockRegisteredHandler> handlers) {
+		final List<LaunchBlockEventListener> combined = new ArrayList<>(listeners);
+		combined.addAll(added);
+		return new LaunchBlockDispatchSnapshot(List.copyOf(combined), handlerTable.withHandlers(handlers), topicBindings);
+	}
+
+	/// @return a new snapshot without the given listeners and their handlers, compared by identity
+	LaunchBlockDispatchSnapshot withoutListeners(final Collection<? extends LaunchBlockEventListener> removed) {
+		final List<LaunchBlockEventListener> remaining = listeners.stream()
+				.filter(listener -> removed.stream().noneMatch(other -> other == listener))
+				.toList();
+		return new LaunchBlockDispatchSnapshot(remaining, handlerTable.withoutListeners(removed), topicBindings);
+	}
+
+	/// @return a new snapshot binding the topic, replacing any previous binding
+	LaunchBlockDispatchSnapshot withTopicBinding(final String topic, final LaunchBlockTopicBinding binding) {
+		final Map<String, LaunchBlockTopicBinding> bindings = new HashMap<>(topicBindings);
+		bindings.put(topic, binding);
+		return new LaunchBlockDispatchSnapshot(listeners, handlerTable, Map.copyOf(bindings));
+	}
+
+	/// @return a new snapshot without the topic's binding
+	LaunchBlockDispatchSnapshot withoutTopicBinding(final String topic) {
+		final Map<String, LaunchBlockTopicBinding> bindings = new HashMap<>(topicBindings);
+		bindings.remove(topic);
+		return new LaunchBlockDispatchSnapshot(listeners, handlerTable, Map.copyOf(bindings));
+	}
+
+	List<LaunchBlockEventListener> getListeners() {
+		return listeners;
+	}
+
+	LaunchBlockHandlerTable getHandlerTable() {
+		return handlerTable;
+	}
+
+	Map<String, LaunchBlockTopicBinding> getTopicBindings() {
+		return topicBindings;
+	}
+
+	/// @return the topic's binding, or {@link LaunchBlockTopicBinding#UNBOUND} if it isn't bound
+	LaunchBlockTopicBinding getTopicBinding(final String topic) {
+		return topicBindings.getOrDefault(topic, LaunchBlockTopicBinding.UNBOUND);
+	}
+
+}
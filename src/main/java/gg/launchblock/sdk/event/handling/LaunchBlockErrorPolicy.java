@@ -0,0 +1,26 @@
+package gg.launchblock.sdk.event.handling;
+
+/**
+ * What a {@link LaunchBlockEventManager} does with a polled message which couldn't be decoded, or whose handler threw. <br>
+ * Either way, the failure is logged, the message's remaining handlers still run, and later messages are consumed as usual.
+ */
+public enum LaunchBlockErrorPolicy {
+	/// The message is given up on right away
+	SKIP,
+	/**
+	 * A failed handler is invoked again, up to {@link LaunchBlockEventManagerSettings#getMaxRetries()} times,
+	 * waiting {@link LaunchBlockEventManagerSettings#getRetryBackoff()} before the first retry and twice as long before every following one. <br>
+	 * The message is given up on once retries are exhausted. Messages which couldn't be decoded aren't retried.
+	 */
+	RETRY,
+	/**
+	 * Failed handlers are retried as with {@link #RETRY}; once retries are exhausted, or if the message couldn't be decoded,
+	 * the original message is emitted as-is to {@link LaunchBlockEventManagerSettings#getDeadLetterTopic()}
+	 * with headers describing the failure. <br>
+	 * Writes failing with transient kafka errors are tried again with exponential backoff, from {@link LaunchBlockEventManagerSettings#getRetryBackoff()}
+	 * up to {@link LaunchBlockEventManagerSettings#getMaxReconnectBackoff()}, a bounded amount of times, and its offset is only committed
+	 * once the dead-letter message has been written. Messages which couldn't be written at all, or before the manager closes,
+	 * are delivered again after a restart or rebalance.
+	 */
+	DEAD_LETTER;
+}
@@ -11,4 +11,22 @@ public @interface LaunchBlockEventHandler {
 
 	LaunchBlockEventPriority priority() default LaunchBlockEventPriority.DEFAULT;
 
+	/**
+	 * Whether the handler only receives the last of the events sharing an {@link gg.launchblock.sdk.event.LaunchBlockEvent#getOrderingKey() ordering key}
+	 * within each polled batch, e.g. only the final state of a lifecycle which changed several times. <br>
+	 * The received event summarizes the skipped ones through {@link gg.launchblock.sdk.event.LaunchBlockEvent#coalesce(gg.launchblock.sdk.event.LaunchBlockEvent)}.
+	 * Events dispatched through {@link LaunchBlockEventManager#dispatchEvent(gg.launchblock.sdk.event.LaunchBlockEvent)} are never coalesced.
+	 */
+	boolean coalesce() default false;
+
+	/**
+	 * For batch handlers, accepting a {@code List} of events (e.g. {@code List<LaunchBlockLifecycleStatusEvent>}),
+	 * the largest amount of events passed at once; larger polled batches are split into several calls. <br>
+	 * Batch handlers receive the events of each polled batch they accept at once, after handlers of higher priority handled all of them
+	 * and before handlers of lower priority handle any. The size of polled batches is bounded by
+	 * {@link LaunchBlockEventManagerSettings.Builder#maxPollRecords(int)}, and grown by
+	 * {@link LaunchBlockEventManagerSettings.Builder#fetchMinBytes(int)} and {@link LaunchBlockEventManagerSettings.Builder#fetchMaxWait(java.time.Duration)}.
+	 */
+	int maxBatchSize() default Integer.MAX_VALUE;
+
 }
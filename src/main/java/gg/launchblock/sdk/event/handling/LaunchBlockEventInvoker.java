@@ -0,0 +1,15 @@
+package gg.launchblock.sdk.event.handling;
+
+import gg.launchblock.sdk.event.LaunchBlockEvent;
+
+/**
+ * Calls a single {@link LaunchBlockEventHandler} method on its listener. <br>
+ * Implementations are generated once per handler when a listener is registered,
+ * so dispatching an event does not go through reflection.
+ */
+@FunctionalInterface
+public interface LaunchBlockEventInvoker {
+
+	void invoke(LaunchBlockEventListener listener, LaunchBlockEvent event) throws Throwable;
+
+}
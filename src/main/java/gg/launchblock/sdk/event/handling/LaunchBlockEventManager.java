@@ -1,172 +1,614 @@
 package gg.launchblock.sdk.event.handling;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import gg.launchblock.sdk.event.*;
 import gg.launchblock.sdk.exception.LaunchBlockSDKException;
 import gg.launchblock.sdk.exception.LaunchBlockSDKExceptionType;
-import gg.launchblock.sdk.util.ImmutablePair;
+import gg.launchblock.sdk.metrics.LaunchBlockMetrics;
 import gg.launchblock.sdk.util.LaunchBlockSDKConstants;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.TopicPartition;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class LaunchBlockEventManager {
 
-	/// bindings of kafka topics to event classes to identify which events to create and call after a kafka message
-	private final HashMap<String, Class<? extends LaunchBlockEvent>> topicBindings = new HashMap<>();
-
 	private final LaunchBlockKafkaConsumerConnection consumerConnection;
 
-	private final List<LaunchBlockEventListener> listeners;
+	/// runs handlers off the polling thread; null when handlers run synchronously
+	private final LaunchBlockKeyedExecutor handlerExecutor;
+
+	/// null when metrics are disabled, so nothing is measured
+	private final LaunchBlockMetrics metrics;
+
+	/// 0 when slow handlers aren't reported
+	private final long slowHandlerThresholdNanos;
+
+	/// 0 when handlers are waited for indefinitely
+	private final long handlerTimeoutNanos;
+
+	private final LaunchBlockFailureHandler failureHandler;
+
+	/// null when redelivered messages aren't dropped
+	private final LaunchBlockDeduplicator deduplicator;
 
-	/// whether the kafka connection hasn't been closed
-	private boolean active;
+	/**
+	 * listeners, their handlers sorted by decreasing priority, and the bindings of kafka topics to event classes
+	 * identifying which events to create and call after a kafka message. <br>
+	 * Read without locking while consuming; replaced as a whole by synchronized methods whenever any of it changes
+	 */
+	private volatile LaunchBlockDispatchSnapshot snapshot = LaunchBlockDispatchSnapshot.EMPTY;
+
+	/// whether the kafka connection hasn't been closed; may be read from any thread
+	private volatile boolean active;
 
 	@SafeVarargs
-	public final <T extends LaunchBlockEventListener> void registerEvents(final T... newListeners) {
-		listeners.addAll(Arrays.asList(newListeners));
+	public final synchronized <T extends LaunchBlockEventListener> void registerEvents(final T... newListeners) {
+		final List<LaunchBlockRegisteredHandler> compiled = new ArrayList<>();
+
+		for (T listener : newListeners) {
+			compiled.addAll(LaunchBlockRegisteredHandler.compileHandlers(listener));
+		}
+
+		// measured before they can be dispatched to
+		if (metrics != null) {
+			metrics.handlersRegistered(compiled);
+		}
+		snapshot = snapshot.withListeners(Arrays.asList(newListeners), compiled);
+		updateSubscription();
+	}
+
+	/**
+	 * Removes the given listeners, compared by identity, while consumption continues. <br>
+	 * Events already being dispatched may still reach them.
+	 */
+	@SafeVarargs
+	public final synchronized <T extends LaunchBlockEventListener> void unregisterEvents(final T... removedListeners) {
+		final LaunchBlockDispatchSnapshot previous = snapshot;
+		snapshot = previous.withoutListeners(Arrays.asList(removedListeners));
+		updateSubscription();
+		if (metrics != null) {
+			metrics.handlersUnregistered(Arrays.stream(previous.getHandlerTable().getHandlers())
+					.filter(handler -> Arrays.stream(removedListeners).anyMatch(listener -> listener == handler.getListener()))
+					.toList());
+		}
 	}
 
 	public <T extends LaunchBlockEvent> void dispatchEvent(final T event) {
-		// two passes to respect priority
-		List<ImmutablePair<Method, LaunchBlockEventListener>> eventMethods = new ArrayList<>();
+		// resolved once per event class, already in order of decreasing priority
+		final LaunchBlockRegisteredHandler[] handlers = snapshot.getHandlerTable().getHandlers(event.getClass());
 
-		getListeners().forEach(listener -> {
-			for (Method declaredMethod : listener.getClass().getDeclaredMethods()) {
-				if (!declaredMethod.isAnnotationPresent(LaunchBlockEventHandler.class)) {
-					continue;
-				}
+		for (LaunchBlockRegisteredHandler handler : handlers) {
+			invokeHandler(handler, event);
+		}
+	}
+
+	private void invokeHandler(final LaunchBlockRegisteredHandler handler, final Object argument) {
+		if (metrics == null && slowHandlerThresholdNanos == 0 && handlerTimeoutNanos == 0) {
+			invoke(handler, argument);
+		} else {
+			invokeMeasured(handler, argument);
+		}
+	}
 
-				if (declaredMethod.getParameterTypes().length != 1 ||
-						!(LaunchBlockEvent.class.isAssignableFrom(declaredMethod.getParameterTypes()[0]))) {
-					LaunchBlockSDKConstants.JAVA_SDK_LOGGER.warn("Event Handler '{}' of listener '{}' has invalid parameters to dispatch to, ignoring",
-							declaredMethod.getName(), listener.getClass().getSimpleName());
+	/**
+	 * Invokes a handler, retrying according to the error policy
+	 * @return null if the handler eventually succeeded, otherwise its last failure
+	 */
+	private RuntimeException invokeWithRetries(final LaunchBlockRegisteredHandler handler, final Object argument) {
+		for (int retry = 0; ; retry++) {
+			try {
+				invokeHandler(handler, argument);
+				return null;
+			} catch (RuntimeException e) {
+				// a timed out handler is still running, so invoking it again could run it twice at once
+				if (e instanceof LaunchBlockHandlerTimeoutException || retry >= failureHandler.getMaxRetries() || !failureHandler.backoff(retry)) {
+					return e;
 				}
+			}
+		}
+	}
 
-				// validate handler parameter, only accepting (T event)
-				if (!(declaredMethod.getParameterTypes()[0].isInstance(event))) {
-					continue;
+	/// Invokes a handler, measuring it and applying the handler timeout
+	private void invokeMeasured(final LaunchBlockRegisteredHandler handler, final Object argument) {
+		final long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			if (handlerTimeoutNanos > 0) {
+				invokeWithTimeout(handler, argument);
+			} else {
+				invoke(handler, argument);
+			}
+			failed = false;
+		} finally {
+			final long elapsed = System.nanoTime() - start;
+			if (metrics != null) {
+				metrics.handlerExecuted(handler, elapsed, failed);
+			}
+			if (slowHandlerThresholdNanos > 0 && elapsed >= slowHandlerThresholdNanos) {
+				LaunchBlockSDKConstants.JAVA_SDK_LOGGER.warn("Event handler {} took {}ms to handle {}",
+						handler, TimeUnit.NANOSECONDS.toMillis(elapsed), describe(argument));
+				if (metrics != null) {
+					metrics.handlerSlow(handler, elapsed);
 				}
+			}
+		}
+	}
 
-				declaredMethod.setAccessible(true);
+	/**
+	 * Runs a handler on its own virtual thread, moving on once it completes or the handler timeout passes
+	 * @throws LaunchBlockHandlerTimeoutException if the timeout passes first
+	 */
+	private void invokeWithTimeout(final LaunchBlockRegisteredHandler handler, final Object argument) {
+		final CompletableFuture<Void> invocation = new CompletableFuture<>();
+		Thread.ofVirtual().name("launchblock-handler-" + handler).start(() -> {
+			try {
+				invoke(handler, argument);
+				invocation.complete(null);
+			} catch (Throwable e) {
+				invocation.completeExceptionally(e);
+			}
+		});
 
-				eventMethods.add(new ImmutablePair<>(declaredMethod, listener));
+		try {
+			invocation.get(handlerTimeoutNanos, TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			if (metrics != null) {
+				metrics.handlerTimedOut(handler);
 			}
+			// the handler can't be stopped safely, so it keeps running off the dispatching thread
+			throw new LaunchBlockHandlerTimeoutException(handler, TimeUnit.NANOSECONDS.toMillis(handlerTimeoutNanos), describe(argument), invocation);
+		} catch (ExecutionException e) {
+			// already wrapped by LaunchBlockRegisteredHandler#invoke
+			if (e.getCause() instanceof RuntimeException failure) {
+				throw failure;
+			}
+			throw new LaunchBlockSDKException(e.getCause(), LaunchBlockSDKExceptionType.EVENT_HANDLING,
+					"Event handler %s failed".formatted(handler));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.EVENT_HANDLING,
+					"Interrupted while waiting for event handler %s".formatted(handler));
+		}
+	}
 
-		});
+	/**
+	 * Dispatches an event created from a message polled at `polledAt`, per {@link System#nanoTime()}, to all of its handlers. <br>
+	 * Unlike {@link #dispatchEvent(LaunchBlockEvent)}, a failed handler doesn't prevent the following ones from running;
+	 * the message is dealt with according to the error policy once all handlers ran.
+	 * @return a future completing once the message has been dealt with
+	 */
+	private CompletableFuture<Void> dispatchPolledEvent(final LaunchBlockPolledEvent polled, final long polledAt) {
+		invokePolledHandlers(polled, snapshot.getHandlerTable().getHandlers(polled.getEvent().getClass()), polledAt);
+		return finishPolledEvent(polled);
+	}
 
-		// consider priority
-		eventMethods.stream().sorted((a, b) -> {
-					// in order of decreasing priority
-					return Integer.compare(b.getLeft().getAnnotation(LaunchBlockEventHandler.class).priority().getLevel(),
-							a.getLeft().getAnnotation(LaunchBlockEventHandler.class).priority().getLevel());
-				})
-				.forEach(pair -> {
-					try {
-						pair.getLeft().invoke(pair.getRight(), event);
-					} catch (IllegalAccessException | InvocationTargetException e) {
-						throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.EVENT_HANDLING,
-								"Failed to invoke event handler %s in listener %s"
-										.formatted(pair.getLeft().getName(), pair.getRight().getClass().getSimpleName()));
-					}
-				});
+	/// Invokes the handlers accepting a single event with the polled event, recording their failures
+	private void invokePolledHandlers(final LaunchBlockPolledEvent polled, final LaunchBlockRegisteredHandler[] handlers, final long polledAt) {
+		if (metrics != null && polled.markDispatched()) {
+			metrics.eventDispatched(polled.getEvent().getTopic(), System.nanoTime() - polledAt);
+		}
+
+		for (LaunchBlockRegisteredHandler handler : handlers) {
+			final LaunchBlockEvent event = polled.getEventFor(handler);
+			if (event == null || handler.isBatch()) {
+				continue;
+			}
+
+			final RuntimeException failure = invokeWithRetries(handler, event);
+			if (failure != null) {
+				polled.recordFailure(handler, failure);
+			}
+		}
+	}
+
+	/**
+	 * Deals with the message according to the error policy if any handler failed. Handlers which timed out count as failed,
+	 * and the message is only given up on once they finished, so its offset isn't committed while they still run
+	 * @return a future completing once the message has been dealt with
+	 */
+	private CompletableFuture<Void> finishPolledEvent(final LaunchBlockPolledEvent polled) {
+		if (polled.getLastFailure() == null) {
+			return LaunchBlockRecordProcessor.COMPLETED;
+		}
+
+		final CompletableFuture<Void> timedOut = polled.getTimedOutInvocations();
+		if (timedOut == null) {
+			return failureHandler.giveUp(polled.getMessage(), polled.getFailedHandlers(), polled.getLastFailure());
+		}
+		return timedOut
+				.handle((result, e) -> null)
+				.thenCompose(unused -> failureHandler.giveUp(polled.getMessage(), polled.getFailedHandlers(), polled.getLastFailure()));
+	}
+
+	/**
+	 * Invokes a batch handler with every polled event it accepts, in lists of at most its {@link LaunchBlockRegisteredHandler#getMaxBatchSize() max batch size}. <br>
+	 * A failure of the handler is recorded for every event of the failed list.
+	 */
+	private void invokeBatchHandler(final LaunchBlockRegisteredHandler handler, final List<LaunchBlockPolledEvent> polledEvents, final long polledAt) {
+		final List<LaunchBlockPolledEvent> accepted = new ArrayList<>();
+		for (LaunchBlockPolledEvent polled : polledEvents) {
+			if (handler.accepts(polled.getEvent().getClass()) && polled.getEventFor(handler) != null) {
+				accepted.add(polled);
+			}
+		}
 
+		for (int from = 0; from < accepted.size(); from += handler.getMaxBatchSize()) {
+			final List<LaunchBlockPolledEvent> chunk = accepted.subList(from, (int) Math.min(accepted.size(), (long) from + handler.getMaxBatchSize()));
+			final LaunchBlockEvent[] events = new LaunchBlockEvent[chunk.size()];
+			for (int i = 0; i < events.length; i++) {
+				final LaunchBlockPolledEvent polled = chunk.get(i);
+				if (metrics != null && polled.markDispatched()) {
+					metrics.eventDispatched(polled.getEvent().getTopic(), System.nanoTime() - polledAt);
+				}
+				events[i] = polled.getEventFor(handler);
+			}
+
+			final RuntimeException failure = invokeWithRetries(handler, events);
+			if (failure != null) {
+				chunk.forEach(polled -> polled.recordFailure(handler, failure));
+			}
+		}
+	}
 
+	/// @param argument the event, or for batch handlers an array of the events
+	private static void invoke(final LaunchBlockRegisteredHandler handler, final Object argument) {
+		if (argument instanceof LaunchBlockEvent[] events) {
+			handler.invoke(List.of(events));
+		} else {
+			handler.invoke((LaunchBlockEvent) argument);
+		}
+	}
+
+	private static String describe(final Object argument) {
+		return argument instanceof LaunchBlockEvent[] events ? "a batch of %d events".formatted(events.length) : argument.getClass().getSimpleName();
 	}
 
 	/// Creates kafka topic bindings for all default LaunchBlock events
 	private void registerDefaultBindings() {
-		topicBindings.put(LaunchBlockEventTopic.PROJECT_CREATED, LaunchBlockProjectCreatedEvent.class);
-		topicBindings.put(LaunchBlockEventTopic.PROJECT_DELETED, LaunchBlockProjectDeletedEvent.class);
-		topicBindings.put(LaunchBlockEventTopic.LIFECYCLE_CREATED, LaunchBlockLifecycleCreatedEvent.class);
-		topicBindings.put(LaunchBlockEventTopic.LIFECYCLE_STATUS, LaunchBlockLifecycleStatusEvent.class);
+		snapshot = snapshot
+				.withTopicBinding(LaunchBlockEventTopic.PROJECT_CREATED, LaunchBlockTopicBinding.create(LaunchBlockProjectCreatedEvent.class))
+				.withTopicBinding(LaunchBlockEventTopic.PROJECT_DELETED, LaunchBlockTopicBinding.create(LaunchBlockProjectDeletedEvent.class))
+				.withTopicBinding(LaunchBlockEventTopic.LIFECYCLE_CREATED, LaunchBlockTopicBinding.create(LaunchBlockLifecycleCreatedEvent.class))
+				.withTopicBinding(LaunchBlockEventTopic.LIFECYCLE_STATUS, LaunchBlockTopicBinding.create(LaunchBlockLifecycleStatusEvent.class));
 	}
 
 	/**
 	 * @param groupId Internal group id of kafka consumer; if two managers share a group id, kafka events are distributed across them.
+	 * @param settings options of this manager and its kafka consumers
 	 */
-	public LaunchBlockEventManager(final String groupId) {
-		this.listeners = new ArrayList<>();
+	public LaunchBlockEventManager(final String groupId, final LaunchBlockEventManagerSettings settings) {
+		this(groupId, settings, LaunchBlockConnectionFactory.KAFKA);
+	}
+
+	/// @param connectionFactory creates the connection records are consumed through, which is started right away
+	LaunchBlockEventManager(final String groupId, final LaunchBlockEventManagerSettings settings,
+							final LaunchBlockConnectionFactory connectionFactory) {
 		this.registerDefaultBindings();
 
-		this.consumerConnection = new LaunchBlockKafkaConsumerConnection(groupId, this::handleKafkaMessage);
+		this.metrics = settings.getMetrics().isEnabled() ? settings.getMetrics() : null;
+		this.slowHandlerThresholdNanos = settings.getSlowHandlerThreshold().toNanos();
+		this.handlerTimeoutNanos = settings.getHandlerTimeout().toNanos();
+		this.failureHandler = new LaunchBlockFailureHandler(settings);
+		this.deduplicator = settings.getDeduplicationWindow().isZero() ? null
+				: new LaunchBlockDeduplicator(settings.getDeduplicationWindow().toNanos());
+
+		this.handlerExecutor = settings.getExecutionMode() == LaunchBlockExecutionMode.VIRTUAL_THREADS
+				? new LaunchBlockKeyedExecutor("launchblock-handler-%s-".formatted(groupId), settings.getMaxInFlightEvents())
+				: null;
+
+		final LaunchBlockRecordProcessor recordProcessor = new LaunchBlockRecordProcessor() {
+			@Override
+			public CompletableFuture<Void> process(final ConsumerRecords<String, byte[]> records) {
+				return handleKafkaMessages(records);
+			}
+
+			@Override
+			public boolean isSaturated() {
+				return handlerExecutor != null && handlerExecutor.isSaturated();
+			}
+		};
+		this.consumerConnection = connectionFactory.create(groupId, settings, recordProcessor, deduplicator);
 		this.active = true;
 
+		this.updateSubscription();
+
 		this.consumerConnection.start();
 
 	}
 
+	/**
+	 * @param groupId Internal group id of kafka consumer; if two managers share a group id, kafka events are distributed across them.
+	 */
+	public LaunchBlockEventManager(final String groupId) {
+		this(groupId, LaunchBlockEventManagerSettings.DEFAULT);
+	}
+
+	public LaunchBlockEventManager(final LaunchBlockEventManagerSettings settings) {
+		this("lb-" + UUID.randomUUID(), settings);
+	}
+
 	public LaunchBlockEventManager() {
 		this("lb-" + UUID.randomUUID());
 	}
 
-	/// Creates and dispatches required events when a `message` is received from kafka
-	private void handleKafkaMessage(final ConsumerRecord<String, String> message) {
-		// need to create and call all events corresponding to this topic
-		String kafkaTopic = message.topic();
+	/// Creates and dispatches required events for a batch of messages received from kafka
+	CompletableFuture<Void> handleKafkaMessages(final ConsumerRecords<String, byte[]> messages) {
+		// a consistent view of the bindings and handlers for the whole batch
+		final LaunchBlockDispatchSnapshot current = snapshot;
+		final long polledAt = metrics != null || deduplicator != null ? System.nanoTime() : 0;
 
-		JsonNode rawContent;
-		try {
-			rawContent = new ObjectMapper().readTree(message.value());
-		} catch (JsonProcessingException e) {
-			throw new LaunchBlockSDKException(LaunchBlockSDKExceptionType.INVALID_JSON,
-					"Could not process kafka message of topic '%s' into a json node: \"%s\"".formatted(kafkaTopic, message.value()));
+		// messages which aren't dealt with yet, i.e. whose handlers run elsewhere or which are being dead-lettered
+		final List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+		if (deduplicator != null) {
+			deduplicator.expire(polledAt);
 		}
 
-		// send out a plain LaunchBlockEvent if this topic isn't bound
-		Class<? extends LaunchBlockEvent> eventClazz = topicBindings.getOrDefault(kafkaTopic, LaunchBlockEvent.class);
+		final LaunchBlockHandlerTable handlerTable = current.getHandlerTable();
+		if (!handlerTable.hasCoalescingHandlers() && !handlerTable.hasBatchHandlers()) {
+			for (ConsumerRecord<String, byte[]> message : messages) {
+				final LaunchBlockEvent event = createPolledEvent(current, message, polledAt, pending);
+				if (event != null) {
+					submitPolledEvent(pending, new LaunchBlockPolledEvent(message, event), polledAt);
+				}
+			}
+		} else {
+			// coalescing and batch handlers need to see the whole batch before anything is dispatched
+			final List<LaunchBlockPolledEvent> polledEvents = new ArrayList<>(messages.count());
+			for (ConsumerRecord<String, byte[]> message : messages) {
+				final LaunchBlockEvent event = createPolledEvent(current, message, polledAt, pending);
+				if (event != null) {
+					polledEvents.add(new LaunchBlockPolledEvent(message, event));
+				}
+			}
+
+			if (handlerTable.hasCoalescingHandlers()) {
+				coalesce(handlerTable, polledEvents);
+			}
 
-		final LaunchBlockEvent eventObject;
+			if (handlerTable.hasBatchHandlers()) {
+				dispatchInStages(handlerTable, polledEvents, polledAt, pending);
+			} else {
+				polledEvents.forEach(polled -> submitPolledEvent(pending, polled, polledAt));
+			}
+		}
+
+		return pending.isEmpty() ? LaunchBlockRecordProcessor.COMPLETED : CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]));
+	}
+
+	/**
+	 * Creates the event of a polled message on the polling thread, so events are created in order
+	 * @return the event, or null if the message is a duplicate, nobody handles it, or it's being dealt with as a failure
+	 */
+	private LaunchBlockEvent createPolledEvent(final LaunchBlockDispatchSnapshot current, final ConsumerRecord<String, byte[]> message,
+											   final long polledAt, final List<CompletableFuture<Void>> pending) {
+		if (deduplicator != null && deduplicator.isDuplicate(message, polledAt)) {
+			if (metrics != null) {
+				metrics.duplicateDropped(message.topic());
+			}
+			return null;
+		}
 
 		try {
+			return createEvent(current, message);
+		} catch (RuntimeException e) {
+			// any message which can't be turned into an event is subject to the error policy, rather than failing the consumer
+			if (!(e instanceof LaunchBlockSDKException)) {
+				LaunchBlockSDKConstants.JAVA_SDK_LOGGER.error("Could not create event of message {}-{}@{}",
+						message.topic(), message.partition(), message.offset(), e);
+			}
+			addPending(pending, failureHandler.giveUp(message, null, e));
+			return null;
+		}
+	}
+
+	private void submitPolledEvent(final List<CompletableFuture<Void>> pending, final LaunchBlockPolledEvent polled, final long polledAt) {
+		if (handlerExecutor == null) {
+			addPending(pending, dispatchPolledEvent(polled, polledAt));
+		} else {
+			// handlers run once earlier events of the same key are handled, and the key is held until the message is dealt with
+			pending.add(handlerExecutor.submit(polled.getEvent().getOrderingKey(), () -> dispatchPolledEvent(polled, polledAt).join()));
+		}
+	}
 
-			eventObject = eventClazz.getDeclaredConstructor(String.class, JsonNode.class).newInstance(kafkaTopic, rawContent);
+	/**
+	 * Folds the events sharing a class and ordering key into the last of them, through {@link LaunchBlockEvent#coalesce(LaunchBlockEvent)},
+	 * leaving coalescing handlers nothing to handle for the earlier ones
+	 */
+	private void coalesce(final LaunchBlockHandlerTable handlerTable, final List<LaunchBlockPolledEvent> polledEvents) {
+		// latest event of each class and key
+		final Map<List<Object>, LaunchBlockPolledEvent> latest = new HashMap<>();
+		for (LaunchBlockPolledEvent polled : polledEvents) {
+			final LaunchBlockEvent event = polled.getEvent();
+			if (!handlerTable.hasCoalescingHandlers(event.getClass())) {
+				continue;
+			}
 
-		} catch (NoSuchMethodException e) {
-			throw new LaunchBlockSDKException(LaunchBlockSDKExceptionType.EVENT_HANDLING,
-					"Failed to construct event object for '%s'. Make sure this event has a constructor accepting parameters (String, JsonNode)"
-							.formatted(eventClazz.getSimpleName()));
-		} catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
-			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.EVENT_HANDLING,
-					"Failed to construct event object for %s".formatted(eventClazz.getSimpleName()));
+			final LaunchBlockPolledEvent earlier = latest.put(List.of(event.getClass(), event.getOrderingKey()), polled);
+			if (earlier != null) {
+				polled.setCoalesced(event.coalesce(earlier.getCoalesced()));
+				earlier.setCoalesced(null);
+				if (metrics != null) {
+					metrics.eventCoalesced(event.getTopic());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Dispatches a batch containing events accepted by batch handlers: each batch handler runs once the handlers of higher priority
+	 * handled every event of the batch, and before handlers of lower priority handle any. <br>
+	 * Batch handlers run on the polling thread. Events are handled concurrently between batch handlers with
+	 * {@link LaunchBlockExecutionMode#VIRTUAL_THREADS}; only handlers after the last batch handler run while the next batch is polled.
+	 */
+	private void dispatchInStages(final LaunchBlockHandlerTable handlerTable, final List<LaunchBlockPolledEvent> polledEvents,
+								  final long polledAt, final List<CompletableFuture<Void>> pending) {
+		final LaunchBlockRegisteredHandler[] handlers = handlerTable.getHandlers();
+
+		// batch handlers accepting any event of this batch, by their position in the table
+		final List<Integer> stages = new ArrayList<>();
+		final Set<Class<? extends LaunchBlockEvent>> eventClasses = new HashSet<>();
+		polledEvents.forEach(polled -> eventClasses.add(polled.getEvent().getClass()));
+		for (int i = 0; i < handlers.length; i++) {
+			final LaunchBlockRegisteredHandler handler = handlers[i];
+			if (handler.isBatch() && eventClasses.stream().anyMatch(handler::accepts)) {
+				stages.add(i);
+			}
+		}
+
+		// the handlers of each event class running before each stage, and after the last one
+		final Map<Class<? extends LaunchBlockEvent>, LaunchBlockRegisteredHandler[][]> segments = new HashMap<>();
+		for (Class<? extends LaunchBlockEvent> eventClass : eventClasses) {
+			final List<List<LaunchBlockRegisteredHandler>> classSegments = new ArrayList<>();
+			for (int stage = 0; stage <= stages.size(); stage++) {
+				classSegments.add(new ArrayList<>());
+			}
+
+			int stage = 0;
+			for (int i = 0; i < handlers.length; i++) {
+				while (stage < stages.size() && stages.get(stage) < i) {
+					stage++;
+				}
+				if (!handlers[i].isBatch() && handlers[i].accepts(eventClass)) {
+					classSegments.get(stage).add(handlers[i]);
+				}
+			}
+			segments.put(eventClass, classSegments.stream()
+					.map(segment -> segment.toArray(new LaunchBlockRegisteredHandler[0]))
+					.toArray(LaunchBlockRegisteredHandler[][]::new));
+		}
+
+		for (int stage = 0; stage <= stages.size(); stage++) {
+			final boolean last = stage == stages.size();
+			final List<CompletableFuture<Void>> segmentFutures = new ArrayList<>();
+
+			for (LaunchBlockPolledEvent polled : polledEvents) {
+				final LaunchBlockRegisteredHandler[] segment = segments.get(polled.getEvent().getClass())[stage];
+
+				if (handlerExecutor == null) {
+					invokePolledHandlers(polled, segment, polledAt);
+					if (last) {
+						addPending(pending, finishPolledEvent(polled));
+					}
+				} else if (last) {
+					pending.add(handlerExecutor.submit(polled.getEvent().getOrderingKey(), () -> {
+						invokePolledHandlers(polled, segment, polledAt);
+						finishPolledEvent(polled).join();
+					}));
+				} else if (segment.length > 0) {
+					segmentFutures.add(handlerExecutor.submit(polled.getEvent().getOrderingKey(), () -> invokePolledHandlers(polled, segment, polledAt)));
+				}
+			}
+
+			if (!last) {
+				// handlers of higher priority are done with every event of the batch before the batch handler runs
+				CompletableFuture.allOf(segmentFutures.toArray(new CompletableFuture<?>[0])).join();
+				invokeBatchHandler(handlers[stages.get(stage)], polledEvents, polledAt);
+			}
 		}
+	}
 
-		this.dispatchEvent(eventObject);
+	private static void addPending(final List<CompletableFuture<Void>> pending, final CompletableFuture<Void> future) {
+		if (!future.isDone()) {
+			pending.add(future);
+		}
+	}
+
+	/**
+	 * Creates the event required when a `message` is received from kafka
+	 * @return the event, or null if no registered handler accepts events of the topic's binding
+	 * @throws LaunchBlockSDKException if the message couldn't be decoded into its event
+	 */
+	private LaunchBlockEvent createEvent(final LaunchBlockDispatchSnapshot current, final ConsumerRecord<String, byte[]> message) {
+		// send out a plain LaunchBlockEvent if this topic isn't bound
+		final LaunchBlockTopicBinding binding = current.getTopicBinding(message.topic());
+
+		// don't decode messages nobody is going to handle
+		if (current.getHandlerTable().getHandlers(binding.getEventType()).length == 0) {
+			return null;
+		}
+
+		try {
+			return binding.createEvent(message.topic(), message.value());
+		} catch (RuntimeException e) {
+			if (metrics != null) {
+				metrics.decodeFailed(message.topic());
+			}
+			throw e;
+		}
 	}
 
 	protected LaunchBlockKafkaConsumerConnection getConsumerConnection() {
 		return consumerConnection;
 	}
 
+	/// @return the metrics of every kafka consumer of this manager, distinguished by their `client-id` tag
+	public Map<MetricName, ? extends Metric> getKafkaMetrics() {
+		return consumerConnection.getKafkaMetrics();
+	}
+
 	public List<LaunchBlockEventListener> getListeners() {
-		return listeners;
+		return snapshot.getListeners();
 	}
 
 	/**
 	 * Binds requested kafka topic to the given event class only if the topic has no previous binding
 	 *
 	 * @return true if the topic is not already bound
+	 * @throws LaunchBlockSDKException if the event class has no public constructor to create it with
 	 */
-	public boolean createTopicBinding(final String topic, Class<? extends LaunchBlockEvent> eventType) {
-		if (topicBindings.containsKey(topic)) {
+	public synchronized boolean createTopicBinding(final String topic, Class<? extends LaunchBlockEvent> eventType) {
+		if (snapshot.getTopicBindings().containsKey(topic)) {
 			LaunchBlockSDKConstants.JAVA_SDK_LOGGER.info("Failed to create topic binding for '{}' since one already exists", topic);
 			return false;
 		}
-		topicBindings.put(topic, eventType);
+		snapshot = snapshot.withTopicBinding(topic, LaunchBlockTopicBinding.create(eventType));
+		updateSubscription();
 		return true;
 	}
 
 	/// @return true if the topic was previously bound
-	public boolean removeTopicBinding(final String topic) {
-		return topicBindings.remove(topic) != null;
+	public synchronized boolean removeTopicBinding(final String topic) {
+		if (!snapshot.getTopicBindings().containsKey(topic)) {
+			return false;
+		}
+		snapshot = snapshot.withoutTopicBinding(topic);
+		updateSubscription();
+		return true;
+	}
+
+	/**
+	 * Only consumes topics whose events would be handled: bound topics whose event class has a handler,
+	 * or every topic if a handler accepts plain {@link LaunchBlockEvent}s, which unbound topics are sent out as.
+	 */
+	private synchronized void updateSubscription() {
+		final LaunchBlockHandlerTable handlerTable = snapshot.getHandlerTable();
+		if (handlerTable.getHandlers(LaunchBlockEvent.class).length > 0) {
+			consumerConnection.setSubscribedTopics(null);
+			return;
+		}
+
+		final Set<String> topics = new HashSet<>();
+		snapshot.getTopicBindings().forEach((topic, binding) -> {
+			if (handlerTable.getHandlers(binding.getEventType()).length > 0) {
+				topics.add(topic);
+			}
+		});
+		consumerConnection.setSubscribedTopics(topics);
 	}
 
 	public Map<String, Class<? extends LaunchBlockEvent>> getTopicBindings() {
-		return Collections.unmodifiableMap(topicBindings);
+		final Map<String, Class<? extends LaunchBlockEvent>> bindings = new HashMap<>();
+		snapshot.getTopicBindings().forEach((topic, binding) -> bindings.put(topic, binding.getEventType()));
+		return Collections.unmodifiableMap(bindings);
 	}
 
 	/**
@@ -175,9 +617,43 @@ public class LaunchBlockEventManager {
  	 */
 	public void close() {
 		consumerConnection.close();
+		if (handlerExecutor != null) {
+			handlerExecutor.shutdown();
+		}
+		failureHandler.close();
 		active = false;
 	}
 
+	/**
+	 * Closes this manager like {@link #close()}, but first waits up to `timeout` for events which have already been polled
+	 * to be handled (or dead-lettered) and for their offsets to be committed, so they aren't delivered again
+	 * @return whether everything was handled and committed in time
+	 */
+	public boolean close(final Duration timeout) {
+		final boolean drained = consumerConnection.close(timeout);
+		close();
+		return drained;
+	}
+
+	/// @return the health of this manager's kafka consumers
+	public LaunchBlockConnectionState getState() {
+		return consumerConnection.getState();
+	}
+
+	/**
+	 * Handlers may check this to tell replayed history, e.g. with {@link LaunchBlockStartPosition#EARLIEST}, apart from live events.
+	 * @return whether the consumers are still handling events which were sent before their partitions were assigned
+	 * @see LaunchBlockKafkaConsumerConnection#isCatchingUp()
+	 */
+	public boolean isCatchingUp() {
+		return consumerConnection.isCatchingUp();
+	}
+
+	/// @return the offset after the last committed event of every partition consumed so far
+	public Map<TopicPartition, Long> getCommittedOffsets() {
+		return consumerConnection.getCommittedOffsets();
+	}
+
 	public boolean isClosed() {
 		return !active;
 	}
@@ -0,0 +1,549 @@
+package gg.launchblock.sdk.event.handling;
+
+import gg.launchblock.sdk.emitters.LaunchBlockMessageEmitter;
+import gg.launchblock.sdk.emitters.LaunchBlockProducerProfile;
+import gg.launchblock.sdk.metrics.LaunchBlockMetrics;
+import gg.launchblock.sdk.util.LaunchBlockSDKConstants;
+import org.apache.kafka.common.TopicPartition;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Options of a {@link LaunchBlockEventManager} and its {@link LaunchBlockKafkaConsumerConnection}. <br>
+ * Create through {@link #builder()}; {@link #DEFAULT} reproduces the behaviour of a manager created without settings.
+ */
+public class LaunchBlockEventManagerSettings {
+
+	public static final LaunchBlockEventManagerSettings DEFAULT = builder().build();
+
+	private final int consumerCount;
+
+	private final LaunchBlockExecutionMode executionMode;
+
+	private final int maxInFlightEvents;
+
+	private final LaunchBlockCommitMode commitMode;
+
+	private final int commitEveryRecords;
+
+	private final Duration commitInterval;
+
+	private final Duration syncCommitInterval;
+
+	private final Duration pollTimeout;
+
+	private final Integer maxPollRecords;
+
+	private final Integer fetchMinBytes;
+
+	private final Duration fetchMaxWait;
+
+	private final LaunchBlockMetrics metrics;
+
+	private final Duration slowHandlerThreshold;
+
+	private final Duration handlerTimeout;
+
+	private final LaunchBlockErrorPolicy errorPolicy;
+
+	private final int maxRetries;
+
+	private final Duration retryBackoff;
+
+	private final String deadLetterTopic;
+
+	private final LaunchBlockMessageEmitter deadLetterEmitter;
+
+	private final Duration connectionTimeout;
+
+	private final Duration reconnectBackoff;
+
+	private final Duration maxReconnectBackoff;
+
+	private final LaunchBlockStartPosition startPosition;
+
+	private final Instant startTimestamp;
+
+	private final Map<TopicPartition, Long> startOffsets;
+
+	private final Duration deduplicationWindow;
+
+	private LaunchBlockEventManagerSettings(final Builder builder) {
+		this.consumerCount = builder.consumerCount;
+		this.executionMode = builder.executionMode;
+		this.maxInFlightEvents = builder.maxInFlightEvents;
+		this.commitMode = builder.commitMode;
+		this.commitEveryRecords = builder.commitEveryRecords;
+		this.commitInterval = builder.commitInterval;
+		this.syncCommitInterval = builder.syncCommitInterval;
+		this.pollTimeout = builder.pollTimeout;
+		this.maxPollRecords = builder.maxPollRecords;
+		this.fetchMinBytes = builder.fetchMinBytes;
+		this.fetchMaxWait = builder.fetchMaxWait;
+		this.metrics = builder.metrics;
+		this.slowHandlerThreshold = builder.slowHandlerThreshold;
+		this.handlerTimeout = builder.handlerTimeout;
+		this.errorPolicy = builder.errorPolicy;
+		this.maxRetries = builder.maxRetries;
+		this.retryBackoff = builder.retryBackoff;
+		this.deadLetterTopic = builder.deadLetterTopic;
+		this.deadLetterEmitter = builder.deadLetterEmitter;
+		this.connectionTimeout = builder.connectionTimeout;
+		this.reconnectBackoff = builder.reconnectBackoff;
+		this.maxReconnectBackoff = builder.maxReconnectBackoff;
+		this.startPosition = builder.startPosition;
+		this.startTimestamp = builder.startTimestamp;
+		this.startOffsets = Map.copyOf(builder.startOffsets);
+		this.deduplicationWindow = builder.deduplicationWindow;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/// Amount of kafka consumers polling in parallel within the manager's group
+	public int getConsumerCount() {
+		return consumerCount;
+	}
+
+	public LaunchBlockExecutionMode getExecutionMode() {
+		return executionMode;
+	}
+
+	/// Maximum amount of events handed to handlers which haven't been handled yet; only applies to {@link LaunchBlockExecutionMode#VIRTUAL_THREADS}
+	public int getMaxInFlightEvents() {
+		return maxInFlightEvents;
+	}
+
+	public LaunchBlockCommitMode getCommitMode() {
+		return commitMode;
+	}
+
+	/// Amount of polled records after which offsets are committed; 0 when not committing by record count
+	public int getCommitEveryRecords() {
+		return commitEveryRecords;
+	}
+
+	/// Time after which offsets are committed; zero when not committing by time
+	public Duration getCommitInterval() {
+		return commitInterval;
+	}
+
+	/// With {@link LaunchBlockCommitMode#ASYNC}, the time after which a commit is made synchronously
+	public Duration getSyncCommitInterval() {
+		return syncCommitInterval;
+	}
+
+	/// Longest time a consumer waits for records before checking for due commits and being able to close
+	public Duration getPollTimeout() {
+		return pollTimeout;
+	}
+
+	/// `max.poll.records` of the kafka consumers, or null to use kafka's default
+	public Integer getMaxPollRecords() {
+		return maxPollRecords;
+	}
+
+	/// `fetch.min.bytes` of the kafka consumers, or null to use kafka's default
+	public Integer getFetchMinBytes() {
+		return fetchMinBytes;
+	}
+
+	/// `fetch.max.wait.ms` of the kafka consumers, or null to use kafka's default
+	public Duration getFetchMaxWait() {
+		return fetchMaxWait;
+	}
+
+	public LaunchBlockMetrics getMetrics() {
+		return metrics;
+	}
+
+	/// Execution time after which a handler is reported as slow; zero when not reporting slow handlers
+	public Duration getSlowHandlerThreshold() {
+		return slowHandlerThreshold;
+	}
+
+	/// Longest time dispatch waits for a handler before counting it as failed; zero when waiting indefinitely
+	public Duration getHandlerTimeout() {
+		return handlerTimeout;
+	}
+
+	public LaunchBlockErrorPolicy getErrorPolicy() {
+		return errorPolicy;
+	}
+
+	/// Amount of times a failed handler is invoked again with {@link LaunchBlockErrorPolicy#RETRY} or {@link LaunchBlockErrorPolicy#DEAD_LETTER}
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+
+	/// Time waited before the first retry of a handler; doubled before every following one
+	public Duration getRetryBackoff() {
+		return retryBackoff;
+	}
+
+	/// Topic messages are emitted to with {@link LaunchBlockErrorPolicy#DEAD_LETTER}
+	public String getDeadLetterTopic() {
+		return deadLetterTopic;
+	}
+
+	/// Emitter dead-letter messages are sent through, or null if the manager creates its own when first needed
+	public LaunchBlockMessageEmitter getDeadLetterEmitter() {
+		return deadLetterEmitter;
+	}
+
+	/// Longest time the manager waits for kafka to accept a connection when starting
+	public Duration getConnectionTimeout() {
+		return connectionTimeout;
+	}
+
+	/// Time a failed consumer waits before reconnecting for the first time; doubled after every following failure
+	public Duration getReconnectBackoff() {
+		return reconnectBackoff;
+	}
+
+	/// Longest time a failed consumer waits before reconnecting
+	public Duration getMaxReconnectBackoff() {
+		return maxReconnectBackoff;
+	}
+
+	/// Where consumers start reading partitions without a committed offset of their group, unless {@link #getStartTimestamp()} is set
+	public LaunchBlockStartPosition getStartPosition() {
+		return startPosition;
+	}
+
+	/// Time from which partitions without a committed offset of the consumer group are replayed, or null to use {@link #getStartPosition()}
+	public Instant getStartTimestamp() {
+		return startTimestamp;
+	}
+
+	/// Offsets consumers seek to when first assigned a partition, taking precedence over committed offsets
+	public Map<TopicPartition, Long> getStartOffsets() {
+		return startOffsets;
+	}
+
+	/// Time after handling messages within which kafka delivering them again drops them; zero when every delivery is handled
+	public Duration getDeduplicationWindow() {
+		return deduplicationWindow;
+	}
+
+	public static class Builder {
+
+		private int consumerCount = 1;
+
+		private LaunchBlockExecutionMode executionMode = LaunchBlockExecutionMode.SYNCHRONOUS;
+
+		private int maxInFlightEvents = 1024;
+
+		private LaunchBlockCommitMode commitMode = LaunchBlockCommitMode.SYNC;
+
+		private int commitEveryRecords = 0;
+
+		private Duration commitInterval = Duration.ZERO;
+
+		private Duration syncCommitInterval = Duration.ofSeconds(5);
+
+		private Duration pollTimeout = Duration.ofSeconds(1);
+
+		private Integer maxPollRecords;
+
+		private Integer fetchMinBytes;
+
+		private Duration fetchMaxWait;
+
+		private LaunchBlockMetrics metrics = LaunchBlockMetrics.NOOP;
+
+		private Duration slowHandlerThreshold = Duration.ZERO;
+
+		private Duration handlerTimeout = Duration.ZERO;
+
+		private LaunchBlockErrorPolicy errorPolicy = LaunchBlockErrorPolicy.SKIP;
+
+		private int maxRetries = 3;
+
+		private Duration retryBackoff = Duration.ofMillis(100);
+
+		private String deadLetterTopic = "launchblock_dead_letter";
+
+		private LaunchBlockMessageEmitter deadLetterEmitter;
+
+		private Duration connectionTimeout = Duration.ofMillis(LaunchBlockSDKConstants.KAFKA_CONNECTION_TIMEOUT);
+
+		private Duration reconnectBackoff = Duration.ofSeconds(1);
+
+		private Duration maxReconnectBackoff = Duration.ofMinutes(1);
+
+		private LaunchBlockStartPosition startPosition = LaunchBlockStartPosition.LATEST;
+
+		private Instant startTimestamp;
+
+		private final Map<TopicPartition, Long> startOffsets = new HashMap<>();
+
+		private Duration deduplicationWindow = Duration.ZERO;
+
+		private Builder() {
+		}
+
+		/**
+		 * Sets the amount of kafka consumers the manager runs, each on its own thread and within the same group. <br>
+		 * Kafka assigns every partition to exactly one of them, so events of a partition are still handled in order,
+		 * while events of different partitions may be handled concurrently. Listeners must be thread-safe when this is above 1. <br>
+		 * Consumers beyond the amount of partitions of the subscribed topics stay idle.
+		 */
+		public Builder consumerCount(final int consumerCount) {
+			if (consumerCount < 1) {
+				throw new IllegalArgumentException("consumerCount must be at least 1, got " + consumerCount);
+			}
+			this.consumerCount = consumerCount;
+			return this;
+		}
+
+		/// @see LaunchBlockExecutionMode
+		public Builder executionMode(final LaunchBlockExecutionMode executionMode) {
+			this.executionMode = Objects.requireNonNull(executionMode, "executionMode");
+			return this;
+		}
+
+		/**
+		 * Bounds the amount of events which have been polled but not handled yet when handlers don't run on the polling thread. <br>
+		 * Once the bound is reached, the consumers pause their partitions until earlier events have been handled,
+		 * while still polling to stay in their group; events polled before pausing may exceed the bound by up to a poll's worth.
+		 */
+		public Builder maxInFlightEvents(final int maxInFlightEvents) {
+			if (maxInFlightEvents < 1) {
+				throw new IllegalArgumentException("maxInFlightEvents must be at least 1, got " + maxInFlightEvents);
+			}
+			this.maxInFlightEvents = maxInFlightEvents;
+			return this;
+		}
+
+		/// @see LaunchBlockCommitMode
+		public Builder commitMode(final LaunchBlockCommitMode commitMode) {
+			this.commitMode = Objects.requireNonNull(commitMode, "commitMode");
+			return this;
+		}
+
+		/**
+		 * Commits offsets once this many records have been polled since the last commit, instead of after every poll. <br>
+		 * May be combined with {@link #commitInterval(Duration)}; offsets are committed when either is reached. 0 disables it.
+		 */
+		public Builder commitEveryRecords(final int commitEveryRecords) {
+			if (commitEveryRecords < 0) {
+				throw new IllegalArgumentException("commitEveryRecords must not be negative, got " + commitEveryRecords);
+			}
+			this.commitEveryRecords = commitEveryRecords;
+			return this;
+		}
+
+		/**
+		 * Commits offsets once this much time has passed since the last commit, instead of after every poll. <br>
+		 * May be combined with {@link #commitEveryRecords(int)}; offsets are committed when either is reached. Zero disables it.
+		 */
+		public Builder commitInterval(final Duration commitInterval) {
+			this.commitInterval = requireNonNegative(commitInterval, "commitInterval");
+			return this;
+		}
+
+		/// With {@link LaunchBlockCommitMode#ASYNC}, makes a commit synchronously whenever this much time has passed since the last synchronous one
+		public Builder syncCommitInterval(final Duration syncCommitInterval) {
+			this.syncCommitInterval = requireNonNegative(syncCommitInterval, "syncCommitInterval");
+			return this;
+		}
+
+		/// Sets the longest time a consumer waits for records before checking for due commits
+		public Builder pollTimeout(final Duration pollTimeout) {
+			this.pollTimeout = requireNonNegative(pollTimeout, "pollTimeout");
+			return this;
+		}
+
+		/// Sets `max.poll.records`, the largest amount of records returned by a single poll
+		public Builder maxPollRecords(final int maxPollRecords) {
+			if (maxPollRecords < 1) {
+				throw new IllegalArgumentException("maxPollRecords must be at least 1, got " + maxPollRecords);
+			}
+			this.maxPollRecords = maxPollRecords;
+			return this;
+		}
+
+		/// Sets `fetch.min.bytes`; the broker waits for this much data (or {@link #fetchMaxWait(Duration)}) before answering a fetch
+		public Builder fetchMinBytes(final int fetchMinBytes) {
+			if (fetchMinBytes < 1) {
+				throw new IllegalArgumentException("fetchMinBytes must be at least 1, got " + fetchMinBytes);
+			}
+			this.fetchMinBytes = fetchMinBytes;
+			return this;
+		}
+
+		/// Sets `fetch.max.wait.ms`, the longest time the broker waits for {@link #fetchMinBytes(int)} to be available
+		public Builder fetchMaxWait(final Duration fetchMaxWait) {
+			this.fetchMaxWait = requireNonNegative(fetchMaxWait, "fetchMaxWait");
+			return this;
+		}
+
+		/**
+		 * Sets where measurements of polling, decoding and dispatching events are reported to; {@link LaunchBlockMetrics#NOOP} by default,
+		 * which skips measuring entirely
+		 * @see gg.launchblock.sdk.metrics.LaunchBlockMetricsRecorder
+		 */
+		public Builder metrics(final LaunchBlockMetrics metrics) {
+			this.metrics = Objects.requireNonNull(metrics, "metrics");
+			return this;
+		}
+
+		/**
+		 * Logs a warning, and reports to the {@link #metrics(LaunchBlockMetrics) metrics}, whenever a handler takes at least this long. <br>
+		 * Zero disables it.
+		 */
+		public Builder slowHandlerThreshold(final Duration slowHandlerThreshold) {
+			this.slowHandlerThreshold = requireNonNegative(slowHandlerThreshold, "slowHandlerThreshold");
+			return this;
+		}
+
+		/**
+		 * Runs every handler on its own virtual thread and stops waiting for it after this long,
+		 * so a stuck handler doesn't hold up the following handlers and polling. <br>
+		 * A timed out handler counts as failed: it's logged, reported to the {@link #metrics(LaunchBlockMetrics) metrics},
+		 * and its message is dealt with according to the {@link #errorPolicy(LaunchBlockErrorPolicy) error policy} without retrying it.
+		 * It keeps running in the background, and the message's offset isn't committed until it finished;
+		 * meanwhile, it may run concurrently with handlers of later events. {@link LaunchBlockEventManager#dispatchEvent(gg.launchblock.sdk.event.LaunchBlockEvent)}
+		 * throws a {@link LaunchBlockHandlerTimeoutException} instead. Zero disables it.
+		 */
+		public Builder handlerTimeout(final Duration handlerTimeout) {
+			this.handlerTimeout = requireNonNegative(handlerTimeout, "handlerTimeout");
+			return this;
+		}
+
+		/// @see LaunchBlockErrorPolicy
+		public Builder errorPolicy(final LaunchBlockErrorPolicy errorPolicy) {
+			this.errorPolicy = Objects.requireNonNull(errorPolicy, "errorPolicy");
+			return this;
+		}
+
+		/**
+		 * Sets how many times a failed handler is invoked again before giving up on the message. <br>
+		 * Retries hold up the consumer (or the message's ordering key), so they should stay well below `max.poll.interval.ms`.
+		 */
+		public Builder maxRetries(final int maxRetries) {
+			if (maxRetries < 0) {
+				throw new IllegalArgumentException("maxRetries must not be negative, got " + maxRetries);
+			}
+			this.maxRetries = maxRetries;
+			return this;
+		}
+
+		/// Sets the time waited before the first retry of a handler; doubled before every following one, up to {@link #maxReconnectBackoff(Duration)}
+		public Builder retryBackoff(final Duration retryBackoff) {
+			this.retryBackoff = requireNonNegative(retryBackoff, "retryBackoff");
+			return this;
+		}
+
+		/// Sets the topic messages are emitted to with {@link LaunchBlockErrorPolicy#DEAD_LETTER}
+		public Builder deadLetterTopic(final String deadLetterTopic) {
+			this.deadLetterTopic = Objects.requireNonNull(deadLetterTopic, "deadLetterTopic");
+			return this;
+		}
+
+		/**
+		 * Sets the emitter dead-letter messages are sent through; it isn't closed by the manager. <br>
+		 * When not set, the manager creates its own emitter with {@link LaunchBlockProducerProfile#DURABLE} the first time a message is dead-lettered.
+		 */
+		public Builder deadLetterEmitter(final LaunchBlockMessageEmitter deadLetterEmitter) {
+			this.deadLetterEmitter = deadLetterEmitter;
+			return this;
+		}
+
+		/// Sets the longest time the manager waits for kafka to accept a connection when starting, before failing
+		public Builder connectionTimeout(final Duration connectionTimeout) {
+			this.connectionTimeout = requireNonNegative(connectionTimeout, "connectionTimeout");
+			return this;
+		}
+
+		/**
+		 * Sets the time a failed consumer waits before creating a new kafka consumer and resuming from the last committed offsets. <br>
+		 * The wait doubles after every consecutive failure, up to {@link #maxReconnectBackoff(Duration)}, and resets once polling succeeds again.
+		 * Must be at least a millisecond, so a broker which stays unreachable isn't retried in a tight loop.
+		 */
+		public Builder reconnectBackoff(final Duration reconnectBackoff) {
+			this.reconnectBackoff = requireMillisecond(reconnectBackoff, "reconnectBackoff");
+			return this;
+		}
+
+		/// Sets the longest time a failed consumer waits before reconnecting; must be at least a millisecond
+		public Builder maxReconnectBackoff(final Duration maxReconnectBackoff) {
+			this.maxReconnectBackoff = requireMillisecond(maxReconnectBackoff, "maxReconnectBackoff");
+			return this;
+		}
+
+		/**
+		 * Sets where consumers start reading partitions their group hasn't committed an offset for, which are all partitions
+		 * of a manager created without a group id. <br>
+		 * {@link LaunchBlockStartPosition#EARLIEST} replays every retained message; see {@link LaunchBlockEventManager#isCatchingUp()}.
+		 */
+		public Builder startPosition(final LaunchBlockStartPosition startPosition) {
+			this.startPosition = Objects.requireNonNull(startPosition, "startPosition");
+			return this;
+		}
+
+		/**
+		 * Replays partitions without a committed offset of the consumer group from the first message sent at or after the timestamp,
+		 * or from their end if there is none. Null to use {@link #startPosition(LaunchBlockStartPosition)} instead.
+		 */
+		public Builder startTimestamp(final Instant startTimestamp) {
+			this.startTimestamp = startTimestamp;
+			return this;
+		}
+
+		/**
+		 * Sets offsets consumers seek to the first time they are assigned each partition, e.g. those of a state snapshot,
+		 * so only messages after it are replayed. They take precedence over the group's committed offsets.
+		 */
+		public Builder startOffsets(final Map<TopicPartition, Long> startOffsets) {
+			startOffsets.forEach((partition, offset) -> {
+				if (offset < 0) {
+					throw new IllegalArgumentException("Start offset of %s must not be negative, got %d".formatted(partition, offset));
+				}
+			});
+			this.startOffsets.clear();
+			this.startOffsets.putAll(startOffsets);
+			return this;
+		}
+
+		/**
+		 * Drops messages kafka delivers again within this long after they have been handled, e.g. after a failed commit
+		 * or a reconnect, so they aren't handled twice. <br>
+		 * Messages which were polled but not handled yet are always delivered again.
+		 * Dropped messages are reported to the {@link #metrics(LaunchBlockMetrics) metrics}. Zero disables it.
+		 */
+		public Builder deduplicationWindow(final Duration deduplicationWindow) {
+			this.deduplicationWindow = requireNonNegative(deduplicationWindow, "deduplicationWindow");
+			return this;
+		}
+
+		public LaunchBlockEventManagerSettings build() {
+			return new LaunchBlockEventManagerSettings(this);
+		}
+
+		private static Duration requireNonNegative(final Duration duration, final String name) {
+			Objects.requireNonNull(duration, name);
+			if (duration.isNegative()) {
+				throw new IllegalArgumentException("%s must not be negative, got %s".formatted(name, duration));
+			}
+			return duration;
+		}
+
+		/// backoffs are waited in whole milliseconds, so anything shorter wouldn't wait at all
+		private static Duration requireMillisecond(final Duration duration, final String name) {
+			Objects.requireNonNull(duration, name);
+			if (duration.toMillis() < 1) {
+				throw new IllegalArgumentException("%s must be at least 1ms, got %s".formatted(name, duration));
+			}
+			return duration;
+		}
+
+	}
+
+}
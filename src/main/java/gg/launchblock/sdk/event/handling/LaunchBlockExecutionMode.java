@@ -0,0 +1,13 @@
+package gg.launchblock.sdk.event.handling;
+
+/// Where a {@link LaunchBlockEventManager} runs its event handlers
+public enum LaunchBlockExecutionMode {
+	/// Handlers run on the kafka consumer thread; a slow handler delays polling of further events
+	SYNCHRONOUS,
+	/**
+	 * Handlers run on virtual threads so polling is never blocked by them. <br>
+	 * Events sharing an ordering key ({@link gg.launchblock.sdk.event.LaunchBlockEvent#getOrderingKey()}) are still handled one at a time,
+	 * in the order they were received, and offsets are only committed once all earlier events of a partition have been handled.
+	 */
+	VIRTUAL_THREADS;
+}
@@ -0,0 +1,197 @@
+package gg.launchblock.sdk.event.handling;
+
+import gg.launchblock.sdk.emitters.LaunchBlockEmitterSettings;
+import gg.launchblock.sdk.emitters.LaunchBlockMessageEmitter;
+import gg.launchblock.sdk.emitters.LaunchBlockProducerProfile;
+import gg.launchblock.sdk.exception.LaunchBlockSDKException;
+import gg.launchblock.sdk.exception.LaunchBlockSDKExceptionType;
+import gg.launchblock.sdk.util.LaunchBlockSDKConstants;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.errors.RetriableException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies a manager's {@link LaunchBlockErrorPolicy} to polled messages which couldn't be decoded or whose handlers threw. <br>
+ * Thread-safe, as failures may be given up on from every consumer and handler thread.
+ */
+final class LaunchBlockFailureHandler {
+
+	static final String ORIGINAL_TOPIC_HEADER = "launchblock-original-topic";
+
+	static final String ORIGINAL_PARTITION_HEADER = "launchblock-original-partition";
+
+	static final String ORIGINAL_OFFSET_HEADER = "launchblock-original-offset";
+
+	static final String FAILED_HANDLERS_HEADER = "launchblock-failed-handlers";
+
+	static final String FAILURE_HEADER = "launchblock-failure";
+
+	/// most attempts at writing a dead-letter message; about half an hour of retries with the default backoffs
+	private static final int MAX_DEAD_LETTER_ATTEMPTS = 32;
+
+	private final LaunchBlockEventManagerSettings settings;
+
+	/// the emitter created by this handler when none was configured; null until a message is first dead-lettered
+	private LaunchBlockMessageEmitter ownedEmitter;
+
+	/// once closed, dead-letter messages which haven't been written yet are given up on
+	private volatile boolean closed;
+
+	LaunchBlockFailureHandler(final LaunchBlockEventManagerSettings settings) {
+		this.settings = settings;
+	}
+
+	/// @return how many times a failed handler is invoked again
+	int getMaxRetries() {
+		return settings.getErrorPolicy() == LaunchBlockErrorPolicy.SKIP ? 0 : settings.getMaxRetries();
+	}
+
+	/**
+	 * Waits before retrying a handler
+	 * @param retry amount of retries made so far
+	 * @return false if interrupted, in which case no more retries should be made
+	 */
+	boolean backoff(final int retry) {
+		try {
+			Thread.sleep(backoffMillis(retry));
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * @param retry amount of retries made so far
+	 * @return the retry backoff doubled once per retry, capped at {@link LaunchBlockEventManagerSettings#getMaxReconnectBackoff()}
+	 */
+	private long backoffMillis(final int retry) {
+		final long backoff = settings.getRetryBackoff().toMillis();
+		final long max = settings.getMaxReconnectBackoff().toMillis();
+		final int shift = Math.min(retry, 20);
+		// compared before shifting, as shifting a long backoff could overflow
+		return backoff > max >> shift ? max : backoff << shift;
+	}
+
+	/**
+	 * Gives up on a message according to the error policy
+	 * @param failedHandlers the handlers which failed, or null if the message couldn't be decoded
+	 * @param failure the last failure
+	 * @return a future completing once the message has been dealt with. With {@link LaunchBlockErrorPolicy#DEAD_LETTER},
+	 * it only completes once the dead-letter message has been written, and completes exceptionally if this handler closes first
+	 * or writing it fails in a way retrying can't fix
+	 */
+	CompletableFuture<Void> giveUp(final ConsumerRecord<String, byte[]> message, final String failedHandlers, final RuntimeException failure) {
+		if (settings.getErrorPolicy() != LaunchBlockErrorPolicy.DEAD_LETTER) {
+			LaunchBlockSDKConstants.JAVA_SDK_LOGGER.warn("Skipped message {}-{}@{} after {}",
+					message.topic(), message.partition(), message.offset(), failedHandlers == null ? "failing to decode it" : "failures of " + failedHandlers);
+			return LaunchBlockRecordProcessor.COMPLETED;
+		}
+
+		final Map<String, String> headers = new LinkedHashMap<>();
+		headers.put(ORIGINAL_TOPIC_HEADER, message.topic());
+		headers.put(ORIGINAL_PARTITION_HEADER, String.valueOf(message.partition()));
+		headers.put(ORIGINAL_OFFSET_HEADER, String.valueOf(message.offset()));
+		if (failedHandlers != null) {
+			headers.put(FAILED_HANDLERS_HEADER, failedHandlers);
+		}
+		headers.put(FAILURE_HEADER, String.valueOf(failure.getMessage()));
+
+		final CompletableFuture<Void> written = new CompletableFuture<>();
+		deadLetter(message, headers, written, 0);
+		return written;
+	}
+
+	/**
+	 * Sends a message to the dead-letter topic, trying again with exponential backoff while kafka is unreachable,
+	 * so its offset isn't committed before it's written. Failures retrying can't fix, e.g. a message exceeding kafka's size limit
+	 * or a closed emitter, complete `written` exceptionally right away, as does the last of {@link #MAX_DEAD_LETTER_ATTEMPTS};
+	 * the message is then delivered again after a restart or rebalance.
+	 * @param attempt amount of failed attempts so far
+	 */
+	private void deadLetter(final ConsumerRecord<String, byte[]> message, final Map<String, String> headers,
+							final CompletableFuture<Void> written, final int attempt) {
+		if (closed) {
+			written.completeExceptionally(new LaunchBlockSDKException(LaunchBlockSDKExceptionType.KAFKA,
+					"Gave up on dead-lettering message %s-%d@%d while closing; it will be delivered again"
+							.formatted(message.topic(), message.partition(), message.offset())));
+			return;
+		}
+
+		final LaunchBlockMessageEmitter emitter = getEmitter();
+		if (emitter.isClosed()) {
+			written.completeExceptionally(new LaunchBlockSDKException(LaunchBlockSDKExceptionType.KAFKA,
+					"Could not dead-letter message %s-%d@%d since the dead-letter emitter is closed; it will be delivered again"
+							.formatted(message.topic(), message.partition(), message.offset())));
+			return;
+		}
+
+		CompletableFuture<?> sent;
+		try {
+			sent = emitter.sendBytesAsync(settings.getDeadLetterTopic(), message.key(), message.value(), headers);
+		} catch (RuntimeException e) {
+			sent = CompletableFuture.failedFuture(e);
+		}
+
+		sent.whenComplete((metadata, e) -> {
+			if (e == null) {
+				written.complete(null);
+				return;
+			}
+			if (!isRetriable(e) || attempt + 1 >= MAX_DEAD_LETTER_ATTEMPTS) {
+				LaunchBlockSDKConstants.JAVA_SDK_LOGGER.error("Gave up on dead-lettering message {}-{}@{} after {} attempts; it will be delivered again",
+						message.topic(), message.partition(), message.offset(), attempt + 1, e);
+				written.completeExceptionally(e);
+				return;
+			}
+
+			final long delayMillis = backoffMillis(attempt);
+			LaunchBlockSDKConstants.JAVA_SDK_LOGGER.warn("Failed to dead-letter message {}-{}@{}; trying again in {}ms",
+					message.topic(), message.partition(), message.offset(), delayMillis);
+			CompletableFuture.runAsync(() -> deadLetter(message, headers, written, attempt + 1),
+					CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS));
+		});
+	}
+
+	/**
+	 * @return whether sending may succeed when tried again: kafka reported a transient error,
+	 * or the emitter rejected the message itself, e.g. while too many records are in flight
+	 */
+	private static boolean isRetriable(final Throwable failure) {
+		for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+			if (cause instanceof RetriableException) {
+				return true;
+			}
+			if (!(cause instanceof LaunchBlockSDKException) && !(cause instanceof CompletionException)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private synchronized LaunchBlockMessageEmitter getEmitter() {
+		if (settings.getDeadLetterEmitter() != null) {
+			return settings.getDeadLetterEmitter();
+		}
+		if (ownedEmitter == null) {
+			ownedEmitter = new LaunchBlockMessageEmitter(LaunchBlockEmitterSettings.builder()
+					.producerProfile(LaunchBlockProducerProfile.DURABLE)
+					.build());
+		}
+		return ownedEmitter;
+	}
+
+	/// Closes the emitter created by this handler, if any; a configured emitter is left open
+	synchronized void close() {
+		closed = true;
+		if (ownedEmitter != null) {
+			ownedEmitter.close();
+		}
+	}
+
+}
@@ -0,0 +1,91 @@
+package gg.launchblock.sdk.event.handling;
+
+import gg.launchblock.sdk.event.LaunchBlockEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable table of registered handlers in order of decreasing priority. <br>
+ * The handlers applicable to each concrete event class (including handlers declared for its supertypes)
+ * are resolved the first time that class is dispatched and cached for the lifetime of the table.
+ */
+final class LaunchBlockHandlerTable {
+
+	static final LaunchBlockHandlerTable EMPTY = new LaunchBlockHandlerTable(new LaunchBlockRegisteredHandler[0]);
+
+	private final LaunchBlockRegisteredHandler[] handlers;
+
+	/// whether any handler is {@link LaunchBlockRegisteredHandler#isCoalescing() coalescing}, so batches need to be looked ahead in
+	private final boolean coalescing;
+
+	/// whether any handler is a {@link LaunchBlockRegisteredHandler#isBatch() batch handler}, so batches are dispatched in stages
+	private final boolean batching;
+
+	private final ClassValue<LaunchBlockRegisteredHandler[]> resolvedHandlers = new ClassValue<>() {
+		@Override
+		protected LaunchBlockRegisteredHandler[] computeValue(final Class<?> eventClass) {
+			// filtering keeps the priority order of the table
+			return Arrays.stream(handlers)
+					.filter(handler -> handler.accepts(eventClass))
+					.toArray(LaunchBlockRegisteredHandler[]::new);
+		}
+	};
+
+	private final ClassValue<Boolean> coalescedClasses = new ClassValue<>() {
+		@Override
+		protected Boolean computeValue(final Class<?> eventClass) {
+			return Arrays.stream(resolvedHandlers.get(eventClass)).anyMatch(LaunchBlockRegisteredHandler::isCoalescing);
+		}
+	};
+
+	private LaunchBlockHandlerTable(final LaunchBlockRegisteredHandler[] handlers) {
+		this.handlers = handlers;
+		this.coalescing = Arrays.stream(handlers).anyMatch(LaunchBlockRegisteredHandler::isCoalescing);
+		this.batching = Arrays.stream(handlers).anyMatch(LaunchBlockRegisteredHandler::isBatch);
+	}
+
+	/// @return a new table containing this table's handlers and the given ones, sorted by priority
+	LaunchBlockHandlerTable withHandlers(final Collection<LaunchBlockRegisteredHandler> added) {
+		final List<LaunchBlockRegisteredHandler> combined = new ArrayList<>(Arrays.asList(handlers));
+		combined.addAll(added);
+
+		// the sort is stable so equal priorities keep registration order
+		combined.sort(LaunchBlockRegisteredHandler.PRIORITY_ORDER);
+		return new LaunchBlockHandlerTable(combined.toArray(new LaunchBlockRegisteredHandler[0]));
+	}
+
+	/// @return a new table without the handlers of the given listeners, compared by identity
+	LaunchBlockHandlerTable withoutListeners(final Collection<? extends LaunchBlockEventListener> removed) {
+		// filtering keeps the priority order of the table
+		return new LaunchBlockHandlerTable(Arrays.stream(handlers)
+				.filter(handler -> removed.stream().noneMatch(listener -> listener == handler.getListener()))
+				.toArray(LaunchBlockRegisteredHandler[]::new));
+	}
+
+	/// @return the handlers accepting events of exactly this class, in order of decreasing priority
+	LaunchBlockRegisteredHandler[] getHandlers(final Class<? extends LaunchBlockEvent> eventClass) {
+		return resolvedHandlers.get(eventClass);
+	}
+
+	boolean hasCoalescingHandlers() {
+		return coalescing;
+	}
+
+	/// @return whether any handler accepting events of exactly this class is coalescing
+	boolean hasCoalescingHandlers(final Class<? extends LaunchBlockEvent> eventClass) {
+		return coalescedClasses.get(eventClass);
+	}
+
+	boolean hasBatchHandlers() {
+		return batching;
+	}
+
+	/// @return every handler of this table, in order of decreasing priority
+	LaunchBlockRegisteredHandler[] getHandlers() {
+		return handlers;
+	}
+
+}
@@ -0,0 +1,28 @@
+package gg.launchblock.sdk.event.handling;
+
+import gg.launchblock.sdk.exception.LaunchBlockSDKException;
+import gg.launchblock.sdk.exception.LaunchBlockSDKExceptionType;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Thrown when a handler doesn't complete within {@link LaunchBlockEventManagerSettings#getHandlerTimeout()}. <br>
+ * The handler can't be stopped safely, so it keeps running in the background; timed out handlers aren't retried.
+ */
+public class LaunchBlockHandlerTimeoutException extends LaunchBlockSDKException {
+
+	private final transient CompletableFuture<Void> invocation;
+
+	LaunchBlockHandlerTimeoutException(final LaunchBlockRegisteredHandler handler, final long timeoutMillis, final String handled,
+									   final CompletableFuture<Void> invocation) {
+		super(LaunchBlockSDKExceptionType.EVENT_HANDLING,
+				"Event handler %s timed out after %dms handling %s; it keeps running in the background".formatted(handler, timeoutMillis, handled));
+		this.invocation = invocation;
+	}
+
+	/// @return a future completing once the timed out handler finished, successfully or not
+	public CompletableFuture<Void> getInvocation() {
+		return invocation;
+	}
+
+}
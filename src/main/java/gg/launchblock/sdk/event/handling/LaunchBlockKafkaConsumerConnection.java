@@ -2,78 +2,182 @@ package gg.launchblock.sdk.event.handling;
 
 import gg.launchblock.sdk.exception.LaunchBlockSDKException;
 import gg.launchblock.sdk.exception.LaunchBlockSDKExceptionType;
+import gg.launchblock.sdk.metrics.LaunchBlockMetrics;
 import gg.launchblock.sdk.util.KafkaUtil;
 import gg.launchblock.sdk.util.LaunchBlockSDKConstants;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.errors.WakeupException;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 public class LaunchBlockKafkaConsumerConnection {
 
-	private KafkaConsumer<String, String> kafkaConsumer;
+	/// longest poll timeout while events are still being handled on other threads, or while partitions are paused
+	private static final Duration PENDING_POLL_TIMEOUT = Duration.ofMillis(100);
 
-	/// Specifies consumers to call when a kafka message is received
-	private final List<Consumer<ConsumerRecord<String, String>>> consumerPassthrough;
+	/// dynamically includes all new topics as opposed to Consumer#listTopics#keySet
+	private static final Pattern ALL_TOPICS = Pattern.compile(".*");
+
+	/// One kafka consumer per worker, all within the same group; see {@link LaunchBlockEventManagerSettings#getConsumerCount()}
+	private final List<ConsumerWorker> workers;
+
+	/// Handles each polled batch; completion of its result decides which offsets may be committed
+	private final LaunchBlockRecordProcessor recordProcessor;
+
+	/// Specifies additional consumers to call when a kafka message is received
+	private final List<Consumer<ConsumerRecord<String, byte[]>>> consumerPassthrough;
 
 	private volatile boolean running = false;
 
+	/// runs the workers; null until started
+	private ExecutorService workerThreads;
+
+	/// per System#nanoTime(), until when closing workers wait for in-flight events before their final commit; 0 when not waiting
+	private volatile long drainDeadlineNanos;
+
+	/// topics requested through {@link #setSubscribedTopics(Set)}; null for all topics
+	private volatile Set<String> requestedTopics = null;
+
+	/// subscription every worker applies before its next poll
+	private volatile Subscription subscription = new Subscription(null);
+
+	/// notified when the subscription changes or the connection closes, for workers waiting without a subscription
+	private final Object subscriptionMonitor = new Object();
+
+	/// start offsets of {@link LaunchBlockEventManagerSettings#getStartOffsets()} which haven't been applied to an assigned partition yet
+	private final Map<TopicPartition, Long> pendingStartOffsets;
+
+	/// partitions whose start position has been decided; later assignments resume from the group's committed offsets
+	private final Set<TopicPartition> positionedPartitions = ConcurrentHashMap.newKeySet();
+
+	/// end offsets of assigned partitions when they were assigned, until the events before them have been handled
+	private final Map<TopicPartition, Long> catchUpTargets = new ConcurrentHashMap<>();
+
+	/// offset after the last committed event of each partition
+	private final Map<TopicPartition, Long> committedOffsets = new ConcurrentHashMap<>();
+
 	/// Internal kafka consumer group id
 	private final String groupId;
 
-	public LaunchBlockKafkaConsumerConnection(final String groupId, final Consumer<ConsumerRecord<String, String>> consumerPassthrough) {
+	private final LaunchBlockEventManagerSettings settings;
+
+	/// null when metrics are disabled, so nothing is measured
+	private final LaunchBlockMetrics metrics;
+
+	/// told which messages have been handled; null when redelivered messages aren't dropped
+	private final LaunchBlockDeduplicator deduplicator;
+
+	LaunchBlockKafkaConsumerConnection(final String groupId, final LaunchBlockEventManagerSettings settings,
+									   final LaunchBlockRecordProcessor recordProcessor, final LaunchBlockDeduplicator deduplicator) {
 		this.groupId = groupId;
-		this.consumerPassthrough = new ArrayList<>() {{
-			add(consumerPassthrough);
-		}};
+		this.deduplicator = deduplicator;
+		this.settings = settings;
+		this.metrics = settings.getMetrics().isEnabled() ? settings.getMetrics() : null;
+		this.pendingStartOffsets = new ConcurrentHashMap<>(settings.getStartOffsets());
+		this.recordProcessor = recordProcessor;
+		this.workers = new ArrayList<>();
+		// passthrough actions may be added while workers are iterating over them
+		this.consumerPassthrough = new CopyOnWriteArrayList<>();
 	}
 
+	public LaunchBlockKafkaConsumerConnection(final String groupId, final LaunchBlockEventManagerSettings settings,
+											  final Consumer<ConsumerRecord<String, byte[]>> consumerPassthrough) {
+		this(groupId, settings, records -> {
+			records.forEach(consumerPassthrough);
+			return LaunchBlockRecordProcessor.COMPLETED;
+		}, null);
+	}
+
+	public LaunchBlockKafkaConsumerConnection(final String groupId, final Consumer<ConsumerRecord<String, byte[]>> consumerPassthrough) {
+		this(groupId, LaunchBlockEventManagerSettings.DEFAULT, consumerPassthrough);
+	}
+
+	/**
+	 * Stops polling without waiting; every worker commits the offsets of events handled so far before closing its consumer.
+	 * @see #close(Duration)
+	 */
 	public void close() {
 		running = false;
-		kafkaConsumer.wakeup();
+		workers.forEach(ConsumerWorker::wakeup);
+		synchronized (subscriptionMonitor) {
+			subscriptionMonitor.notifyAll();
+		}
 	}
 
 	/**
-	 * Starts listening for kafka messages to pass to `consumerPassthrough` consumers
+	 * Stops polling, then waits up to `timeout` for events which have already been polled to be handled,
+	 * and for every worker to commit their offsets and close its consumer
+	 * @return whether every worker closed in time
 	 */
-	private void run() {
-		kafkaConsumer = createConsumer();
-
-		// dynamically includes all new topics as opposed to Consumer#listTopics#keySet
-		kafkaConsumer.subscribe(Pattern.compile(".*"));
+	public boolean close(final Duration timeout) {
+		drainDeadlineNanos = System.nanoTime() + timeout.toNanos();
+		close();
 
+		if (workerThreads == null) {
+			return true;
+		}
 		try {
-			while (running) {
-				ConsumerRecords<String, String> records = kafkaConsumer.poll(Long.MAX_VALUE);
-
-				if (records.count() == 0) continue;
+			return workerThreads.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
 
-				records.forEach(record -> {
-					consumerPassthrough.forEach(pass -> {
-						pass.accept(record);
-					});
-				});
+	/**
+	 * Restricts the topics consumed by every worker; applied before each worker's next poll. <br>
+	 * While passthrough actions are present, all topics are consumed regardless, since they expect every message.
+	 * @param topics topics to consume, or null to consume all topics
+	 */
+	public void setSubscribedTopics(final Set<String> topics) {
+		this.requestedTopics = topics == null ? null : Set.copyOf(topics);
+		updateSubscription();
+	}
 
-				kafkaConsumer.commitSync(); // advances offset to not receive old events
-			}
-		} catch (WakeupException e) { // when an indefinitely running poll tries to wake up through close(), we want to close.
-			kafkaConsumer.close();
-			running = false;
+	private synchronized void updateSubscription() {
+		final Set<String> topics = consumerPassthrough.isEmpty() ? requestedTopics : null;
+		if (Objects.equals(topics, subscription.topics())) {
 			return;
 		}
 
-		kafkaConsumer.close();
-		running = false;
+		subscription = new Subscription(topics);
+
+		// interrupt polls so the new subscription applies right away
+		workers.forEach(ConsumerWorker::wakeup);
+		synchronized (subscriptionMonitor) {
+			subscriptionMonitor.notifyAll();
+		}
 	}
 
-	private KafkaConsumer<String, String> createConsumer() {
+	private KafkaConsumer<String, byte[]> createConsumer() {
 		// for further information,
 		// https://kafka.apache.org/10/javadoc/org/apache/kafka/clients/consumer/KafkaConsumer.html
 
@@ -81,41 +185,564 @@ public class LaunchBlockKafkaConsumerConnection {
 		props.put("bootstrap.servers", LaunchBlockSDKConstants.KAFKA_HOSTNAME + ":" + LaunchBlockSDKConstants.KAFKA_PORT);
 		props.put("group.id", getGroupId()); // used for load distribution
 		props.put("key.deserializer", "org.apache.kafka.common.serialization.StringDeserializer");
-		props.put("value.deserializer", "org.apache.kafka.common.serialization.StringDeserializer");
+		props.put("value.deserializer", "org.apache.kafka.common.serialization.ByteArrayDeserializer");
+
+		// where to start partitions without a committed offset; by default, don't include previous messages
+		props.put("auto.offset.reset", settings.getStartPosition() == LaunchBlockStartPosition.EARLIEST ? "earliest" : "latest");
 
-		// don't include previous messages
-		props.put("auto.offset.reset", "latest");
+		// offsets are committed by the workers once their events have been handled, see LaunchBlockCommitMode
+		props.put("enable.auto.commit", "false");
+
+		if (settings.getMaxPollRecords() != null) {
+			props.put("max.poll.records", settings.getMaxPollRecords().toString());
+		}
+		if (settings.getFetchMinBytes() != null) {
+			props.put("fetch.min.bytes", settings.getFetchMinBytes().toString());
+		}
+		if (settings.getFetchMaxWait() != null) {
+			props.put("fetch.max.wait.ms", String.valueOf(settings.getFetchMaxWait().toMillis()));
+		}
 
 		return new KafkaConsumer<>(props);
 	}
 
 	/**
-	 * 	invokes `run()` in a separate thread only if the process is not already running
-	 * @see LaunchBlockKafkaConsumerConnection#run()
+	 * 	invokes `run()` of every consumer worker in separate threads only if the process is not already running
+	 * @see ConsumerWorker#run()
  	 */
 	protected void start() {
 		if (running) {
 			return;
 		}
 
-		if (!KafkaUtil.isKafkaRunning()) {
+		if (!KafkaUtil.isKafkaRunning(settings.getConnectionTimeout())) {
 			throw new LaunchBlockSDKException(LaunchBlockSDKExceptionType.KAFKA,
 					"Could not connect to kafka. Make sure your kafka instance is enabled before listening to it");
 		}
 
 		running = true;
-		Executors.newSingleThreadExecutor().submit(this::run);
+
+		// daemon threads, so a manager which isn't closed doesn't keep the application alive
+		final ExecutorService executor = Executors.newFixedThreadPool(settings.getConsumerCount(),
+				Thread.ofPlatform().name("launchblock-consumer-%s-".formatted(getGroupId()), 0).daemon(true).factory());
+
+		workers.clear();
+		for (int i = 0; i < settings.getConsumerCount(); i++) {
+			final ConsumerWorker worker = new ConsumerWorker();
+			workers.add(worker);
+			executor.submit(worker::supervise);
+		}
+		executor.shutdown(); // threads finish once their worker stops
+		workerThreads = executor;
 	}
 
-	public void addPassthroughAction(final Consumer<ConsumerRecord<String, String>> action) {
+	/// @return the state of the least healthy worker, or {@link LaunchBlockConnectionState#STOPPED} if not running
+	public LaunchBlockConnectionState getState() {
+		if (!running) {
+			return LaunchBlockConnectionState.STOPPED;
+		}
+
+		LaunchBlockConnectionState state = LaunchBlockConnectionState.RUNNING;
+		for (ConsumerWorker worker : workers) {
+			if (worker.state == LaunchBlockConnectionState.DEGRADED) {
+				return LaunchBlockConnectionState.DEGRADED;
+			}
+			if (worker.state == LaunchBlockConnectionState.STARTING) {
+				state = LaunchBlockConnectionState.STARTING;
+			}
+		}
+		return state;
+	}
+
+	/**
+	 * Consumers catch up after starting, or after being assigned partitions, until they handled every event which was
+	 * already in their partitions at that time. Handlers may use this to tell replayed history apart from live events.
+	 * @return whether the consumers are still starting or catching up
+	 */
+	public boolean isCatchingUp() {
+		return running && (getState() == LaunchBlockConnectionState.STARTING || !catchUpTargets.isEmpty());
+	}
+
+	/**
+	 * Offsets are only included once they have been committed, so every event before them has been handled.
+	 * @return the offset after the last committed event of every partition consumed so far
+	 */
+	public Map<TopicPartition, Long> getCommittedOffsets() {
+		return Map.copyOf(committedOffsets);
+	}
+
+	public void addPassthroughAction(final Consumer<ConsumerRecord<String, byte[]>> action) {
 		consumerPassthrough.add(action);
+		updateSubscription();
+	}
+
+	/// @return the topics consumed by every worker, or null if all topics are consumed
+	public Set<String> getSubscribedTopics() {
+		return subscription.topics();
+	}
+
+	/// @return the kafka consumer of the first worker, or null if it hasn't been created yet
+	public KafkaConsumer<String, byte[]> getKafkaConsumer() {
+		return workers.isEmpty() ? null : workers.get(0).kafkaConsumer;
+	}
+
+	/// @return the kafka consumers of all workers which have been created so far
+	public List<KafkaConsumer<String, byte[]>> getKafkaConsumers() {
+		final List<KafkaConsumer<String, byte[]>> consumers = new ArrayList<>();
+		workers.forEach(worker -> {
+			if (worker.kafkaConsumer != null) {
+				consumers.add(worker.kafkaConsumer);
+			}
+		});
+		return consumers;
+	}
+
+	/// @return the metrics of the kafka consumers of all workers, distinguished by their `client-id` tag
+	public Map<MetricName, ? extends Metric> getKafkaMetrics() {
+		final Map<MetricName, Metric> kafkaMetrics = new HashMap<>();
+		getKafkaConsumers().forEach(consumer -> kafkaMetrics.putAll(consumer.metrics()));
+		return Collections.unmodifiableMap(kafkaMetrics);
 	}
 
-	public KafkaConsumer<String, String> getKafkaConsumer() {
-		return kafkaConsumer;
+	private static Duration min(final Duration a, final Duration b) {
+		return a.compareTo(b) <= 0 ? a : b;
 	}
 
 	public String getGroupId() {
 		return groupId;
 	}
+
+	public LaunchBlockEventManagerSettings getSettings() {
+		return settings;
+	}
+
+	/// Polls a single kafka consumer of this connection's group; kafka balances partitions across all workers
+	private class ConsumerWorker {
+
+		private volatile KafkaConsumer<String, byte[]> kafkaConsumer;
+
+		private volatile LaunchBlockConnectionState state = LaunchBlockConnectionState.STARTING;
+
+		/// time waited before the next reconnect; reset once polling succeeds
+		private long reconnectBackoffMillis = settings.getReconnectBackoff().toMillis();
+
+		private final LaunchBlockOffsetTracker offsetTracker = new LaunchBlockOffsetTracker();
+
+		/// offsets of handled events which haven't been committed yet
+		private final Map<TopicPartition, OffsetAndMetadata> uncommitted = new HashMap<>();
+
+		private int recordsSinceCommit;
+
+		private long lastCommitNanos = System.nanoTime();
+
+		private long lastSyncCommitNanos = System.nanoTime();
+
+		/// last subscription given to the kafka consumer
+		private Subscription appliedSubscription;
+
+		/// partitions currently assigned to the kafka consumer
+		private final Set<TopicPartition> assignedPartitions = new HashSet<>();
+
+		/// assigned partitions paused because the record processor is saturated
+		private final Set<TopicPartition> pausedPartitions = new HashSet<>();
+
+		private final ConsumerRebalanceListener rebalanceListener = new ConsumerRebalanceListener() {
+			@Override
+			public void onPartitionsRevoked(final Collection<TopicPartition> partitions) {
+				// keep what has been handled so far; anything still in flight is redelivered to the partitions' new owner
+				try {
+					commit(true);
+				} finally {
+					offsetTracker.forget(partitions);
+					uncommitted.keySet().removeAll(partitions);
+					assignedPartitions.removeAll(partitions);
+					pausedPartitions.removeAll(partitions);
+					catchUpTargets.keySet().removeAll(partitions);
+					if (metrics != null) {
+						metrics.partitionsRevoked(partitions);
+					}
+				}
+			}
+
+			@Override
+			public void onPartitionsAssigned(final Collection<TopicPartition> partitions) {
+				assignedPartitions.addAll(partitions);
+				if (partitions.isEmpty()) {
+					return;
+				}
+				if (metrics != null) {
+					metrics.partitionsAssigned(partitions);
+				}
+
+				positionNewPartitions(partitions);
+
+				// everything up to the current end of the partitions is history to catch up on
+				final Map<TopicPartition, Long> endOffsets = kafkaConsumer.endOffsets(partitions);
+				for (TopicPartition partition : partitions) {
+					final long position = kafkaConsumer.position(partition);
+					final Long end = endOffsets.get(partition);
+					if (end != null && position < end) {
+						catchUpTargets.put(partition, end);
+					}
+					if (deduplicator != null) {
+						deduplicator.reset(partition, position);
+					}
+				}
+			}
+		};
+
+		/**
+		 * Applies start offsets and the start timestamp to partitions assigned for the first time. <br>
+		 * The chosen offsets are committed with the next commit, so a consumer replacing this one resumes from them.
+		 */
+		private void positionNewPartitions(final Collection<TopicPartition> partitions) {
+			final List<TopicPartition> unpositioned = new ArrayList<>();
+			for (TopicPartition partition : partitions) {
+				if (!positionedPartitions.add(partition)) {
+					continue;
+				}
+
+				final Long startOffset = pendingStartOffsets.remove(partition);
+				if (startOffset != null) {
+					kafkaConsumer.seek(partition, startOffset);
+					uncommitted.put(partition, new OffsetAndMetadata(startOffset));
+				} else {
+					unpositioned.add(partition);
+				}
+			}
+
+			if (settings.getStartTimestamp() == null || unpositioned.isEmpty()) {
+				return;
+			}
+
+			// the timestamp only replaces auto.offset.reset, so partitions with a committed offset resume from it
+			final Map<TopicPartition, OffsetAndMetadata> committed = kafkaConsumer.committed(new HashSet<>(unpositioned));
+			final Map<TopicPartition, Long> timestamps = new HashMap<>();
+			for (TopicPartition partition : unpositioned) {
+				if (committed.get(partition) == null) {
+					timestamps.put(partition, settings.getStartTimestamp().toEpochMilli());
+				}
+			}
+			if (timestamps.isEmpty()) {
+				return;
+			}
+
+			final Map<TopicPartition, OffsetAndTimestamp> offsets = kafkaConsumer.offsetsForTimes(timestamps);
+			final List<TopicPartition> withoutNewerMessages = new ArrayList<>();
+			for (TopicPartition partition : timestamps.keySet()) {
+				final OffsetAndTimestamp offset = offsets.get(partition);
+				if (offset != null) {
+					kafkaConsumer.seek(partition, offset.offset());
+					uncommitted.put(partition, new OffsetAndMetadata(offset.offset()));
+				} else {
+					withoutNewerMessages.add(partition);
+				}
+			}
+			if (!withoutNewerMessages.isEmpty()) {
+				kafkaConsumer.seekToEnd(withoutNewerMessages);
+			}
+		}
+
+		/**
+		 * Runs the worker until the connection closes, replacing its kafka consumer with exponential backoff whenever it fails. <br>
+		 * Events polled but not committed by a failed consumer are delivered again, to this or another consumer of the group.
+		 */
+		private void supervise() {
+			try {
+				while (running) {
+					try {
+						run();
+					} catch (RuntimeException e) {
+						if (!running) {
+							break;
+						}
+
+						state = LaunchBlockConnectionState.DEGRADED;
+						LaunchBlockSDKConstants.JAVA_SDK_LOGGER.error("Kafka consumer of group '{}' failed; reconnecting in {}ms",
+								getGroupId(), reconnectBackoffMillis, e);
+
+						// the failed consumer's partitions are caught up on by whichever consumer they are assigned to next
+						catchUpTargets.keySet().removeAll(assignedPartitions);
+						if (metrics != null) {
+							metrics.partitionsRevoked(Set.copyOf(assignedPartitions));
+						}
+						assignedPartitions.clear();
+
+						closeConsumerQuietly();
+						awaitReconnect();
+						reconnectBackoffMillis = Math.min(reconnectBackoffMillis * 2, settings.getMaxReconnectBackoff().toMillis());
+					}
+				}
+			} finally {
+				state = LaunchBlockConnectionState.STOPPED;
+			}
+		}
+
+		/**
+		 * Starts listening for kafka messages to pass to the record processor and `consumerPassthrough` consumers
+		 */
+		private void run() {
+			final KafkaConsumer<String, byte[]> kafkaConsumer = createConsumer();
+			this.kafkaConsumer = kafkaConsumer;
+
+			// anything tracked for a previous consumer is redelivered
+			offsetTracker.clear();
+			uncommitted.clear();
+			recordsSinceCommit = 0;
+			appliedSubscription = null;
+			assignedPartitions.clear();
+			pausedPartitions.clear();
+
+			while (running) {
+				try {
+					if (!applySubscription()) {
+						markRunning();
+						awaitSubscription();
+						continue;
+					}
+
+					// while handlers are still running elsewhere, return regularly to commit what they have completed
+					ConsumerRecords<String, byte[]> records = kafkaConsumer.poll(offsetTracker.hasPending() || !pausedPartitions.isEmpty()
+							? min(settings.getPollTimeout(), PENDING_POLL_TIMEOUT)
+							: settings.getPollTimeout());
+					markRunning();
+
+					if (metrics != null) {
+						recordMetrics(records);
+					}
+
+					if (records.count() > 0) {
+						offsetTracker.track(records, recordProcessor.process(records));
+						recordsSinceCommit += records.count();
+
+						records.forEach(record -> {
+							consumerPassthrough.forEach(pass -> {
+								try {
+									pass.accept(record);
+								} catch (RuntimeException e) {
+									// a failing passthrough action shouldn't cost the whole consumer
+									LaunchBlockSDKConstants.JAVA_SDK_LOGGER.error("Passthrough action of consumer group '{}' failed", getGroupId(), e);
+								}
+							});
+						});
+					}
+
+					commit(false); // advances offset to not receive old events
+					updateCatchUp();
+					applyBackpressure();
+				} catch (WakeupException e) {
+					// woken up through close() or a subscription change; `running` decides whether to keep polling
+				}
+			}
+
+			drain();
+
+			try {
+				commit(true);
+			} catch (WakeupException e) { // a wakeup only interrupts a single call
+				commit(true);
+			}
+			kafkaConsumer.close();
+		}
+
+		private void markRunning() {
+			if (state != LaunchBlockConnectionState.RUNNING) {
+				state = LaunchBlockConnectionState.RUNNING;
+				reconnectBackoffMillis = settings.getReconnectBackoff().toMillis();
+			}
+		}
+
+		/**
+		 * Pauses every assigned partition while the record processor is saturated, and resumes them once it isn't. <br>
+		 * Polling continues while paused, so the consumer stays in its group without fetching more records.
+		 */
+		private void applyBackpressure() {
+			if (recordProcessor.isSaturated()) {
+				if (pausedPartitions.addAll(assignedPartitions)) {
+					kafkaConsumer.pause(assignedPartitions);
+				}
+			} else if (!pausedPartitions.isEmpty()) {
+				kafkaConsumer.resume(pausedPartitions);
+				pausedPartitions.clear();
+			}
+		}
+
+		/// When closing through {@link #close(Duration)}, waits for polled events to be handled so their offsets are committed
+		private void drain() {
+			final long remainingNanos = drainDeadlineNanos - System.nanoTime();
+			if (drainDeadlineNanos == 0 || remainingNanos <= 0 || !offsetTracker.hasPending()) {
+				return;
+			}
+
+			try {
+				offsetTracker.allPending().get(remainingNanos, TimeUnit.NANOSECONDS);
+			} catch (TimeoutException | ExecutionException e) {
+				// commit whatever has completed
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		/// Waits before reconnecting; returns early when the connection closes
+		private void awaitReconnect() {
+			final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(reconnectBackoffMillis);
+			synchronized (subscriptionMonitor) {
+				long remainingMillis;
+				// the monitor is also notified on subscription changes, which shouldn't cut the wait short
+				while (running && (remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())) > 0) {
+					try {
+						subscriptionMonitor.wait(remainingMillis);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						running = false;
+					}
+				}
+			}
+		}
+
+		private void closeConsumerQuietly() {
+			try {
+				kafkaConsumer.close(Duration.ZERO);
+			} catch (RuntimeException e) {
+				// the consumer is abandoned either way
+			}
+		}
+
+		/**
+		 * Subscribes the consumer to the connection's current subscription if it changed since the last call
+		 * @return whether the consumer is subscribed to any topic
+		 */
+		private boolean applySubscription() {
+			final Subscription desired = subscription;
+			if (desired != appliedSubscription) {
+				if (desired.topics() == null) {
+					kafkaConsumer.subscribe(ALL_TOPICS, rebalanceListener);
+				} else if (desired.topics().isEmpty()) {
+					kafkaConsumer.unsubscribe(); // revokes and commits all partitions through the rebalance listener
+				} else {
+					kafkaConsumer.subscribe(desired.topics(), rebalanceListener);
+				}
+				appliedSubscription = desired;
+			}
+			return desired.topics() == null || !desired.topics().isEmpty();
+		}
+
+		/// Waits for a subscription change while there is nothing to consume; polling without a subscription isn't allowed
+		private void awaitSubscription() {
+			synchronized (subscriptionMonitor) {
+				if (running && subscription == appliedSubscription) {
+					try {
+						subscriptionMonitor.wait(settings.getPollTimeout().toMillis() + 1);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						running = false;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Commits the offsets of every partition up to its last batch which completed after all of its predecessors,
+		 * if a commit is due according to the connection's settings
+		 * @param force whether to commit synchronously regardless of the settings, e.g. when closing
+		 */
+		private void commit(final boolean force) {
+			final Map<TopicPartition, OffsetAndMetadata> committable = offsetTracker.collectCommittable();
+			if (deduplicator != null && !committable.isEmpty()) {
+				deduplicator.recordHandled(committable);
+			}
+			uncommitted.putAll(committable);
+			if (uncommitted.isEmpty()) {
+				return;
+			}
+
+			if (!catchUpTargets.isEmpty()) {
+				uncommitted.forEach((partition, offset) ->
+						catchUpTargets.computeIfPresent(partition, (p, target) -> offset.offset() >= target ? null : target));
+			}
+
+			final long now = System.nanoTime();
+			if (!force && !isCommitDue(now)) {
+				return;
+			}
+
+			final Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>(uncommitted);
+
+			if (force || settings.getCommitMode() == LaunchBlockCommitMode.SYNC
+					|| now - lastSyncCommitNanos >= settings.getSyncCommitInterval().toNanos()) {
+				kafkaConsumer.commitSync(offsets); // offsets stay uncommitted if this throws
+				lastSyncCommitNanos = now;
+				recordCommitted(offsets);
+			} else {
+				kafkaConsumer.commitAsync(offsets, (committed, e) -> {
+					if (e != null) {
+						// superseded by the next commit of these partitions; at worst their events are delivered again
+						LaunchBlockSDKConstants.JAVA_SDK_LOGGER.warn("Failed to commit offsets of consumer group '{}' asynchronously", getGroupId(), e);
+					} else {
+						recordCommitted(committed);
+					}
+				});
+			}
+
+			uncommitted.clear();
+			recordsSinceCommit = 0;
+			lastCommitNanos = now;
+		}
+
+		/// Partitions may end in offsets without events, e.g. transaction markers, which are never handled
+		private void updateCatchUp() {
+			if (catchUpTargets.isEmpty() || offsetTracker.hasPending()) {
+				return;
+			}
+			for (TopicPartition partition : assignedPartitions) {
+				final Long target = catchUpTargets.get(partition);
+				if (target != null && kafkaConsumer.position(partition) >= target) {
+					catchUpTargets.remove(partition);
+				}
+			}
+		}
+
+		private void recordCommitted(final Map<TopicPartition, OffsetAndMetadata> offsets) {
+			// asynchronous commits may complete out of order
+			offsets.forEach((partition, offset) -> committedOffsets.merge(partition, offset.offset(), Math::max));
+		}
+
+		private boolean isCommitDue(final long now) {
+			final int everyRecords = settings.getCommitEveryRecords();
+			final long intervalNanos = settings.getCommitInterval().toNanos();
+
+			if (everyRecords == 0 && intervalNanos == 0) {
+				return true; // commit after every poll
+			}
+
+			return (everyRecords > 0 && recordsSinceCommit >= everyRecords)
+					|| (intervalNanos > 0 && now - lastCommitNanos >= intervalNanos);
+		}
+
+		private void recordMetrics(final ConsumerRecords<String, byte[]> records) {
+			for (TopicPartition partition : records.partitions()) {
+				metrics.recordsPolled(partition.topic(), records.records(partition).size());
+			}
+
+			// computed from the consumer's last fetch, without contacting the broker
+			for (TopicPartition partition : kafkaConsumer.assignment()) {
+				final OptionalLong lag = kafkaConsumer.currentLag(partition);
+				if (lag.isPresent()) {
+					metrics.consumerLag(partition, lag.getAsLong());
+				}
+			}
+		}
+
+		private void wakeup() {
+			final KafkaConsumer<String, byte[]> kafkaConsumer = this.kafkaConsumer;
+			if (kafkaConsumer != null) {
+				kafkaConsumer.wakeup();
+			}
+		}
+
+	}
+
+	/// @param topics topics to consume, or null for all topics
+	private record Subscription(Set<String> topics) {
+	}
 }
@@ -0,0 +1,60 @@
+package gg.launchblock.sdk.event.handling;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tasks on virtual threads, one at a time and in submission order per key,
+ * while tasks of different keys run concurrently. <br>
+ * Submitting never blocks; callers check {@link #isSaturated()} to stop submitting once too many tasks are unfinished.
+ */
+final class LaunchBlockKeyedExecutor {
+
+	private final ExecutorService executor;
+
+	private final int maxInFlight;
+
+	/// amount of submitted tasks which haven't completed yet
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	/// last submitted task of each key which hasn't completed yet
+	private final ConcurrentHashMap<Object, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+	LaunchBlockKeyedExecutor(final String threadPrefix, final int maxInFlight) {
+		this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadPrefix, 0).factory());
+		this.maxInFlight = maxInFlight;
+	}
+
+	/**
+	 * Runs `task` once every task previously submitted with the same key has completed
+	 * @return a future completing with the task; a failing task doesn't prevent later tasks of its key from running
+	 */
+	CompletableFuture<Void> submit(final Object key, final Runnable task) {
+		inFlight.incrementAndGet();
+
+		final CompletableFuture<Void> scheduled = tails.compute(key, (unused, previous) ->
+				(previous == null ? LaunchBlockRecordProcessor.COMPLETED : previous.exceptionally(e -> null))
+						.thenRunAsync(task, executor));
+
+		scheduled.whenComplete((result, e) -> {
+			tails.remove(key, scheduled);
+			inFlight.decrementAndGet();
+		});
+
+		return scheduled;
+	}
+
+	/// @return whether the maximum amount of unfinished tasks has been reached
+	boolean isSaturated() {
+		return inFlight.get() >= maxInFlight;
+	}
+
+	/// Stops accepting tasks; tasks which have already been submitted still run
+	void shutdown() {
+		executor.shutdown();
+	}
+
+}
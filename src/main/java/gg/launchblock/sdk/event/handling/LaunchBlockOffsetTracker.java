@@ -0,0 +1,85 @@
+package gg.launchblock.sdk.event.handling;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tracks batches polled by a single kafka consumer until they have been handled,
+ * so that a partition's offset is never committed past an event which is still being handled. <br>
+ * Not thread-safe; only used from the consumer's polling thread.
+ */
+final class LaunchBlockOffsetTracker {
+
+	private final Map<TopicPartition, ArrayDeque<PendingBatch>> pending = new HashMap<>();
+
+	/// Starts tracking every partition of `records` until `completion` is done
+	void track(final ConsumerRecords<String, byte[]> records, final CompletableFuture<Void> completion) {
+		for (TopicPartition partition : records.partitions()) {
+			final List<ConsumerRecord<String, byte[]>> partitionRecords = records.records(partition);
+			final long nextOffset = partitionRecords.get(partitionRecords.size() - 1).offset() + 1;
+
+			pending.computeIfAbsent(partition, unused -> new ArrayDeque<>()).add(new PendingBatch(nextOffset, completion));
+		}
+	}
+
+	/**
+	 * Stops tracking batches which have completed, in order per partition
+	 * @return for each partition with newly completed batches, the offset of the next event to consume
+	 */
+	Map<TopicPartition, OffsetAndMetadata> collectCommittable() {
+		final Map<TopicPartition, OffsetAndMetadata> committable = new HashMap<>();
+
+		pending.entrySet().removeIf(entry -> {
+			final ArrayDeque<PendingBatch> batches = entry.getValue();
+
+			long committableOffset = -1;
+			// a batch which failed to be dealt with, e.g. a dead-letter message abandoned while closing, is never committed
+			while (!batches.isEmpty() && batches.peek().completion().isDone() && !batches.peek().completion().isCompletedExceptionally()) {
+				committableOffset = batches.poll().nextOffset();
+			}
+
+			if (committableOffset >= 0) {
+				committable.put(entry.getKey(), new OffsetAndMetadata(committableOffset));
+			}
+			return batches.isEmpty();
+		});
+
+		return committable;
+	}
+
+	/// Stops tracking the given partitions, e.g. once they have been revoked from this consumer
+	void forget(final Collection<TopicPartition> partitions) {
+		partitions.forEach(pending::remove);
+	}
+
+	/// @return a future completing once every batch tracked so far has completed
+	CompletableFuture<Void> allPending() {
+		return CompletableFuture.allOf(pending.values().stream()
+				.flatMap(ArrayDeque::stream)
+				.map(PendingBatch::completion)
+				.toArray(CompletableFuture<?>[]::new));
+	}
+
+	/// Stops tracking every partition, e.g. once the consumer has been replaced
+	void clear() {
+		pending.clear();
+	}
+
+	/// @return whether any tracked batch has not completed yet
+	boolean hasPending() {
+		return !pending.isEmpty();
+	}
+
+	private record PendingBatch(long nextOffset, CompletableFuture<Void> completion) {
+	}
+
+}
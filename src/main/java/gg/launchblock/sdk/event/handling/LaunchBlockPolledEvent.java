@@ -0,0 +1,99 @@
+package gg.launchblock.sdk.event.handling;
+
+import gg.launchblock.sdk.event.LaunchBlockEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An event created from a polled message while it's being dispatched, collecting the failures of its handlers
+ * until the message is dealt with according to the error policy. <br>
+ * Not thread-safe; a message's handlers run one after another, even when they run on different threads.
+ */
+final class LaunchBlockPolledEvent {
+
+	private final ConsumerRecord<String, byte[]> message;
+
+	private final LaunchBlockEvent event;
+
+	/// the event coalescing handlers receive, or null if a later event of the batch supersedes it
+	private LaunchBlockEvent coalesced;
+
+	private boolean dispatched;
+
+	private StringJoiner failedHandlers;
+
+	private RuntimeException lastFailure;
+
+	/// invocations of handlers which timed out and are still running in the background; null if none timed out
+	private List<CompletableFuture<Void>> timedOutInvocations;
+
+	LaunchBlockPolledEvent(final ConsumerRecord<String, byte[]> message, final LaunchBlockEvent event) {
+		this.message = message;
+		this.event = event;
+		this.coalesced = event;
+	}
+
+	/// @return the event the handler receives, or null if it skips this event
+	LaunchBlockEvent getEventFor(final LaunchBlockRegisteredHandler handler) {
+		return handler.isCoalescing() ? coalesced : event;
+	}
+
+	/// @return whether this is the first time the event is dispatched to a handler
+	boolean markDispatched() {
+		if (dispatched) {
+			return false;
+		}
+		dispatched = true;
+		return true;
+	}
+
+	void recordFailure(final LaunchBlockRegisteredHandler handler, final RuntimeException failure) {
+		if (failedHandlers == null) {
+			failedHandlers = new StringJoiner(",");
+		}
+		failedHandlers.add(handler.toString());
+		lastFailure = failure;
+
+		if (failure instanceof LaunchBlockHandlerTimeoutException timeout) {
+			if (timedOutInvocations == null) {
+				timedOutInvocations = new ArrayList<>();
+			}
+			timedOutInvocations.add(timeout.getInvocation());
+		}
+	}
+
+	ConsumerRecord<String, byte[]> getMessage() {
+		return message;
+	}
+
+	LaunchBlockEvent getEvent() {
+		return event;
+	}
+
+	LaunchBlockEvent getCoalesced() {
+		return coalesced;
+	}
+
+	void setCoalesced(final LaunchBlockEvent coalesced) {
+		this.coalesced = coalesced;
+	}
+
+	/// @return the handlers which failed, separated by commas, or null if none did
+	String getFailedHandlers() {
+		return failedHandlers == null ? null : failedHandlers.toString();
+	}
+
+	RuntimeException getLastFailure() {
+		return lastFailure;
+	}
+
+	/// @return a future completing once every handler which timed out finished, or null if none timed out
+	CompletableFuture<Void> getTimedOutInvocations() {
+		return timedOutInvocations == null ? null : CompletableFuture.allOf(timedOutInvocations.toArray(new CompletableFuture<?>[0]));
+	}
+
+}
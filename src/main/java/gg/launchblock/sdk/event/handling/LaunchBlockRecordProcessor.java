@@ -0,0 +1,28 @@
+package gg.launchblock.sdk.event.handling;
+
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+
+import java.util.concurrent.CompletableFuture;
+
+/// Processes each batch of records polled by a {@link LaunchBlockKafkaConsumerConnection}
+@FunctionalInterface
+interface LaunchBlockRecordProcessor {
+
+	/// shared result of batches which were processed on the polling thread
+	CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
+	/**
+	 * @return a future completing once every record of the batch has been handled.
+	 * Offsets of a partition are only committed up to the last batch whose predecessors have all completed
+	 */
+	CompletableFuture<Void> process(ConsumerRecords<String, byte[]> records);
+
+	/**
+	 * While saturated, partitions with unhandled records are paused, so polling continues without fetching more of them
+	 * @return whether too many processed records haven't been handled yet
+	 */
+	default boolean isSaturated() {
+		return false;
+	}
+
+}
@@ -0,0 +1,243 @@
+package gg.launchblock.sdk.event.handling;
+
+import gg.launchblock.sdk.event.LaunchBlockEvent;
+import gg.launchblock.sdk.exception.LaunchBlockSDKException;
+import gg.launchblock.sdk.exception.LaunchBlockSDKExceptionType;
+import gg.launchblock.sdk.util.LaunchBlockSDKConstants;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/// A {@link LaunchBlockEventHandler} method of a registered listener, resolved once at registration time
+public final class LaunchBlockRegisteredHandler {
+
+	/// in order of decreasing priority; used with stable sorts so equal priorities keep registration order
+	static final Comparator<LaunchBlockRegisteredHandler> PRIORITY_ORDER =
+			Comparator.comparingInt((LaunchBlockRegisteredHandler handler) -> handler.getPriority().getLevel()).reversed();
+
+	private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, LaunchBlockEventListener.class, LaunchBlockEvent.class);
+
+	private static final MethodType BATCH_INVOKER_TYPE = MethodType.methodType(void.class, LaunchBlockEventListener.class, List.class);
+
+	private final LaunchBlockEventListener listener;
+
+	private final Method method;
+
+	private final Class<? extends LaunchBlockEvent> eventType;
+
+	private final LaunchBlockEventPriority priority;
+
+	private final boolean coalescing;
+
+	/// 0 for handlers accepting a single event
+	private final int maxBatchSize;
+
+	/// null for batch handlers
+	private final LaunchBlockEventInvoker invoker;
+
+	/// null for handlers accepting a single event
+	private final LaunchBlockBatchEventInvoker batchInvoker;
+
+	private LaunchBlockRegisteredHandler(final LaunchBlockEventListener listener, final Method method,
+										 final Class<? extends LaunchBlockEvent> eventType, final LaunchBlockEventPriority priority,
+										 final boolean coalescing, final int maxBatchSize) {
+		this.listener = listener;
+		this.method = method;
+		this.eventType = eventType;
+		this.priority = priority;
+		this.coalescing = coalescing;
+		this.maxBatchSize = maxBatchSize;
+
+		if (maxBatchSize == 0) {
+			this.invoker = createInvoker(method, LaunchBlockEventInvoker.class, INVOKER_TYPE, eventType,
+					handle -> (handlerListener, event) -> handle.invokeExact(handlerListener, event));
+			this.batchInvoker = null;
+		} else {
+			this.invoker = null;
+			this.batchInvoker = createInvoker(method, LaunchBlockBatchEventInvoker.class, BATCH_INVOKER_TYPE, List.class,
+					handle -> (handlerListener, events) -> handle.invokeExact(handlerListener, (List<?>) events));
+		}
+	}
+
+	/**
+	 * Finds every {@link LaunchBlockEventHandler} method declared by the listener's class. <br>
+	 * Methods that don't accept exactly one {@link LaunchBlockEvent}, or one {@link List} of a {@link LaunchBlockEvent} type,
+	 * are logged and ignored.
+	 */
+	static List<LaunchBlockRegisteredHandler> compileHandlers(final LaunchBlockEventListener listener) {
+		final List<LaunchBlockRegisteredHandler> handlers = new ArrayList<>();
+
+		for (Method declaredMethod : listener.getClass().getDeclaredMethods()) {
+			final LaunchBlockEventHandler annotation = declaredMethod.getAnnotation(LaunchBlockEventHandler.class);
+			if (annotation == null) {
+				continue;
+			}
+
+			// validate handler parameter, only accepting (T event) or (List<T> events)
+			final Class<? extends LaunchBlockEvent> eventType = resolveEventType(declaredMethod);
+			if (eventType == null) {
+				LaunchBlockSDKConstants.JAVA_SDK_LOGGER.warn("Event Handler '{}' of listener '{}' has invalid parameters to dispatch to, ignoring",
+						declaredMethod.getName(), listener.getClass().getSimpleName());
+				continue;
+			}
+
+			final boolean batch = declaredMethod.getParameterTypes()[0] == List.class;
+			if (batch && annotation.maxBatchSize() < 1) {
+				LaunchBlockSDKConstants.JAVA_SDK_LOGGER.warn("Event Handler '{}' of listener '{}' has an invalid max batch size of {}, ignoring",
+						declaredMethod.getName(), listener.getClass().getSimpleName(), annotation.maxBatchSize());
+				continue;
+			}
+
+			handlers.add(new LaunchBlockRegisteredHandler(listener, declaredMethod, eventType, annotation.priority(),
+					annotation.coalesce(), batch ? annotation.maxBatchSize() : 0));
+		}
+
+		return handlers;
+	}
+
+	/// @return the event class the method's parameter accepts, or its list holds; null if it isn't a valid handler
+	private static Class<? extends LaunchBlockEvent> resolveEventType(final Method method) {
+		if (method.getParameterCount() != 1) {
+			return null;
+		}
+
+		final Class<?> parameter = method.getParameterTypes()[0];
+		if (LaunchBlockEvent.class.isAssignableFrom(parameter)) {
+			return parameter.asSubclass(LaunchBlockEvent.class);
+		}
+		if (parameter != List.class || !(method.getGenericParameterTypes()[0] instanceof ParameterizedType list)) {
+			return null;
+		}
+
+		// List<T> or List<? extends T>
+		Type element = list.getActualTypeArguments()[0];
+		if (element instanceof WildcardType wildcard && wildcard.getLowerBounds().length == 0) {
+			element = wildcard.getUpperBounds()[0];
+		}
+		return element instanceof Class<?> elementClass && LaunchBlockEvent.class.isAssignableFrom(elementClass)
+				? elementClass.asSubclass(LaunchBlockEvent.class)
+				: null;
+	}
+
+	/**
+	 * @param invokerType the erased signature of the invoker's method
+	 * @param parameterType the erased parameter type of the handler
+	 * @param fallback creates an invoker calling a method handle of the handler, typed as `invokerType`
+	 */
+	private static <T> T createInvoker(final Method method, final Class<T> invokerInterface, final MethodType invokerType,
+									   final Class<?> parameterType, final Function<MethodHandle, T> fallback) {
+		method.setAccessible(true);
+
+		final MethodHandle target;
+		try {
+			target = MethodHandles.lookup().unreflect(method);
+		} catch (IllegalAccessException e) {
+			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.EVENT_HANDLING,
+					"Failed to access event handler %s in listener %s".formatted(method.getName(), method.getDeclaringClass().getSimpleName()));
+		}
+
+		if (!Modifier.isStatic(method.getModifiers())) {
+			// spin a class implementing the invoker which calls the handler directly, as if it were written by hand
+			try {
+				final MethodHandles.Lookup listenerLookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+				return invokerInterface.cast(LambdaMetafactory.metafactory(listenerLookup, "invoke",
+								MethodType.methodType(invokerInterface), invokerType,
+								listenerLookup.unreflect(method),
+								MethodType.methodType(void.class, method.getDeclaringClass(), parameterType))
+						.getTarget()
+						.invoke());
+			} catch (Throwable e) {
+				// e.g. the listener's class loader can't see the invoker interface; the method handle below still avoids reflection
+				LaunchBlockSDKConstants.JAVA_SDK_LOGGER.debug("Could not generate an invoker for event handler '{}', using a method handle", method.getName(), e);
+			}
+		}
+
+		return fallback.apply((Modifier.isStatic(method.getModifiers())
+				? MethodHandles.dropArguments(target, 0, LaunchBlockEventListener.class)
+				: target).asType(invokerType));
+	}
+
+	/// @return whether this handler accepts events of the given class
+	public boolean accepts(final Class<?> eventClass) {
+		return eventType.isAssignableFrom(eventClass);
+	}
+
+	/// Calls the handler with the given event, as a batch of one for batch handlers, wrapping anything it throws
+	public void invoke(final LaunchBlockEvent event) {
+		try {
+			if (invoker != null) {
+				invoker.invoke(listener, event);
+			} else {
+				batchInvoker.invoke(listener, List.of(event));
+			}
+		} catch (Throwable e) {
+			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.EVENT_HANDLING,
+					"Failed to invoke event handler %s in listener %s"
+							.formatted(method.getName(), listener.getClass().getSimpleName()));
+		}
+	}
+
+	/// Calls the handler with the given events, once per event unless it's a batch handler, wrapping anything it throws
+	public void invoke(final List<? extends LaunchBlockEvent> events) {
+		if (batchInvoker == null) {
+			events.forEach(this::invoke);
+			return;
+		}
+
+		try {
+			batchInvoker.invoke(listener, events);
+		} catch (Throwable e) {
+			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.EVENT_HANDLING,
+					"Failed to invoke batch event handler %s in listener %s"
+							.formatted(method.getName(), listener.getClass().getSimpleName()));
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "%s#%s".formatted(listener.getClass().getSimpleName(), method.getName());
+	}
+
+	public LaunchBlockEventListener getListener() {
+		return listener;
+	}
+
+	public Method getMethod() {
+		return method;
+	}
+
+	public Class<? extends LaunchBlockEvent> getEventType() {
+		return eventType;
+	}
+
+	public LaunchBlockEventPriority getPriority() {
+		return priority;
+	}
+
+	/// @see LaunchBlockEventHandler#coalesce()
+	public boolean isCoalescing() {
+		return coalescing;
+	}
+
+	/// @return whether the handler accepts a {@link List} of events
+	public boolean isBatch() {
+		return batchInvoker != null;
+	}
+
+	/// @see LaunchBlockEventHandler#maxBatchSize()
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+}
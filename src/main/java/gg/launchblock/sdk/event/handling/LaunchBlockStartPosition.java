@@ -0,0 +1,9 @@
+package gg.launchblock.sdk.event.handling;
+
+/// Where a {@link LaunchBlockKafkaConsumerConnection} starts reading partitions its consumer group hasn't committed an offset for yet
+public enum LaunchBlockStartPosition {
+	/// Only messages sent after the partition was assigned are received
+	LATEST,
+	/// Every message still retained by kafka is replayed first
+	EARLIEST;
+}
@@ -0,0 +1,106 @@
+package gg.launchblock.sdk.event.handling;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import gg.launchblock.sdk.event.LaunchBlockEvent;
+import gg.launchblock.sdk.event.LaunchBlockEventPayload;
+import gg.launchblock.sdk.event.LaunchBlockEventSchema;
+import gg.launchblock.sdk.exception.LaunchBlockSDKException;
+import gg.launchblock.sdk.exception.LaunchBlockSDKExceptionType;
+import gg.launchblock.sdk.util.JsonUtil;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/// Binding of a kafka topic to the event class created for its messages, with the way to decode and construct it resolved once
+final class LaunchBlockTopicBinding {
+
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(LaunchBlockEvent.class, String.class, Object.class);
+
+	/// amount of leading bytes of an undecodable Smile message included in the error
+	private static final int SMILE_DESCRIPTION_BYTES = 64;
+
+	/// used for topics without a binding, sending out a plain {@link LaunchBlockEvent}
+	static final LaunchBlockTopicBinding UNBOUND = create(LaunchBlockEvent.class);
+
+	private final Class<? extends LaunchBlockEvent> eventType;
+
+	/// null when events are constructed from a json tree
+	private final LaunchBlockEventSchema schema;
+
+	/// (String topic, Object content) -> LaunchBlockEvent
+	private final MethodHandle constructor;
+
+	private LaunchBlockTopicBinding(final Class<? extends LaunchBlockEvent> eventType, final LaunchBlockEventSchema schema,
+									final MethodHandle constructor) {
+		this.eventType = eventType;
+		this.schema = schema;
+		this.constructor = constructor;
+	}
+
+	/**
+	 * Resolves how events of the given class are created
+	 * @throws LaunchBlockSDKException if the class has no suitable constructor
+	 */
+	static LaunchBlockTopicBinding create(final Class<? extends LaunchBlockEvent> eventType) {
+		// events declaring a schema are decoded straight from the message's bytes, others from a json tree
+		final LaunchBlockEventSchema schema = LaunchBlockEventSchema.of(eventType);
+		final Class<?> contentType = schema != null ? LaunchBlockEventPayload.class : JsonNode.class;
+
+		try {
+			final MethodHandle constructor = MethodHandles.publicLookup()
+					.findConstructor(eventType, MethodType.methodType(void.class, String.class, contentType))
+					.asType(CONSTRUCTOR_TYPE);
+			return new LaunchBlockTopicBinding(eventType, schema, constructor);
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new LaunchBlockSDKException(LaunchBlockSDKExceptionType.EVENT_HANDLING,
+					"Failed to construct event object for '%s'. Make sure this event has a public constructor accepting parameters (String, JsonNode)"
+							.formatted(eventType.getSimpleName()));
+		}
+	}
+
+	/// Decodes a kafka message of the given topic and constructs its event
+	LaunchBlockEvent createEvent(final String topic, final byte[] value) {
+		// e.g. tombstones, which have no content to decode
+		if (value == null || value.length == 0) {
+			throw new LaunchBlockSDKException(LaunchBlockSDKExceptionType.INVALID_JSON,
+					"Could not process kafka message of topic '%s' into a json node: it has no value".formatted(topic));
+		}
+
+		final Object content;
+		try {
+			content = schema != null ? schema.decode(value) : JsonUtil.readTree(value);
+		} catch (IOException e) {
+			throw new LaunchBlockSDKException(LaunchBlockSDKExceptionType.INVALID_JSON,
+					"Could not process kafka message of topic '%s' into a json node: %s".formatted(topic, describe(value)));
+		}
+
+		try {
+			return (LaunchBlockEvent) constructor.invokeExact(topic, content);
+		} catch (Throwable e) {
+			throw new LaunchBlockSDKException(e, LaunchBlockSDKExceptionType.EVENT_HANDLING,
+					"Failed to construct event object for %s".formatted(eventType.getSimpleName()));
+		}
+	}
+
+	Class<? extends LaunchBlockEvent> getEventType() {
+		return eventType;
+	}
+
+	/// @return the message as text, or its size and a base64 prefix if it's binary Smile, which isn't readable as text
+	private static String describe(final byte[] value) {
+		if (value == null) {
+			return "null";
+		}
+		if (!JsonUtil.isSmile(value)) {
+			return "\"%s\"".formatted(new String(value, StandardCharsets.UTF_8));
+		}
+		return "Smile message of %d bytes starting with base64 %s"
+				.formatted(value.length, Base64.getEncoder().encodeToString(Arrays.copyOf(value, Math.min(value.length, SMILE_DESCRIPTION_BYTES))));
+	}
+
+}
@@ -0,0 +1,96 @@
+package gg.launchblock.sdk.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative values, usually durations in nanoseconds. <br>
+ * Like HdrHistogram, values are counted in buckets whose width grows with their magnitude:
+ * every power of two is split into 4 buckets, so reported percentiles are within 25% of the recorded values.
+ */
+public class LaunchBlockLatencyHistogram {
+
+	/// every power of two from 2^3 on is split into 2^SUB_BUCKET_BITS buckets; smaller values have a bucket each
+	private static final int SUB_BUCKET_BITS = 2;
+
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private static final int LINEAR_BUCKETS = SUB_BUCKETS * 2;
+
+	private static final int BUCKETS = LINEAR_BUCKETS + (63 - (SUB_BUCKET_BITS + 1)) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	private final LongAdder count = new LongAdder();
+
+	private final LongAdder sum = new LongAdder();
+
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	public void record(final long value) {
+		final long clamped = Math.max(0, value);
+		counts.incrementAndGet(bucketOf(clamped));
+		count.increment();
+		sum.add(clamped);
+		max.accumulate(clamped);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getSum() {
+		return sum.sum();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public double getMean() {
+		final long total = getCount();
+		return total == 0 ? 0 : (double) getSum() / total;
+	}
+
+	/**
+	 * @param percentile between 0 and 100
+	 * @return the highest value of the bucket containing the percentile, capped at the maximum recorded value; 0 when empty
+	 */
+	public long getValueAtPercentile(final double percentile) {
+		final long total = getCount();
+		if (total == 0) {
+			return 0;
+		}
+
+		final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				return Math.min(highestValueOf(i), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	private static int bucketOf(final long value) {
+		if (value < LINEAR_BUCKETS) {
+			return (int) value;
+		}
+		final int exponent = 63 - Long.numberOfLeadingZeros(value);
+		final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return LINEAR_BUCKETS + (exponent - (SUB_BUCKET_BITS + 1)) * SUB_BUCKETS + subBucket;
+	}
+
+	private static long highestValueOf(final int bucket) {
+		if (bucket < LINEAR_BUCKETS) {
+			return bucket;
+		}
+		final int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+		final int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+		final long width = 1L << (exponent - SUB_BUCKET_BITS);
+		return ((long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+	}
+
+}
@@ -0,0 +1,85 @@
+package gg.launchblock.sdk.metrics;
+
+import gg.launchblock.sdk.event.handling.LaunchBlockEventManagerSettings;
+import gg.launchblock.sdk.event.handling.LaunchBlockRegisteredHandler;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+
+/**
+ * Receives measurements of a {@link gg.launchblock.sdk.event.handling.LaunchBlockEventManager} and its kafka consumers. <br>
+ * Set through {@link LaunchBlockEventManagerSettings.Builder#metrics(LaunchBlockMetrics)}; implement it to bridge to a metrics backend,
+ * or use {@link LaunchBlockMetricsRecorder}. <br>
+ * Methods are called on consumer and handler threads while events are processed, so implementations must be thread-safe and fast.
+ */
+public interface LaunchBlockMetrics {
+
+	/// Discards all measurements; nothing is measured at all while it is used
+	LaunchBlockMetrics NOOP = new LaunchBlockMetrics() {
+		@Override
+		public boolean isEnabled() {
+			return false;
+		}
+	};
+
+	/// @return whether measurements should be taken; checked once when the manager is created
+	default boolean isEnabled() {
+		return true;
+	}
+
+	/// Called after every poll for each topic records were received from
+	default void recordsPolled(final String topic, final int count) {
+	}
+
+	/// Called after every poll for each partition assigned to the consumer whose lag is known
+	default void consumerLag(final TopicPartition partition, final long lag) {
+	}
+
+	/// Called when partitions are assigned to a consumer, before any of their measurements
+	default void partitionsAssigned(final Collection<TopicPartition> partitions) {
+	}
+
+	/// Called when partitions are no longer assigned to a consumer, so measurements kept for them can be discarded
+	default void partitionsRevoked(final Collection<TopicPartition> partitions) {
+	}
+
+	/// Called when an event's handlers start running, with the time since the event's batch was polled
+	default void eventDispatched(final String topic, final long pollToDispatchNanos) {
+	}
+
+	/// Called once a handler returned or threw
+	default void handlerExecuted(final LaunchBlockRegisteredHandler handler, final long nanos, final boolean failed) {
+	}
+
+	/// Called once a handler returned or threw after taking at least {@link LaunchBlockEventManagerSettings#getSlowHandlerThreshold()}
+	default void handlerSlow(final LaunchBlockRegisteredHandler handler, final long nanos) {
+	}
+
+	/// Called when dispatch stopped waiting for a handler after {@link LaunchBlockEventManagerSettings#getHandlerTimeout()}
+	default void handlerTimedOut(final LaunchBlockRegisteredHandler handler) {
+	}
+
+	/// Called when listeners are registered, with their handlers, before any of their measurements
+	default void handlersRegistered(final Collection<LaunchBlockRegisteredHandler> handlers) {
+	}
+
+	/**
+	 * Called when listeners are unregistered, with their handlers, so measurements kept for them can be discarded. <br>
+	 * Handlers which were already running may still report measurements afterwards.
+	 */
+	default void handlersUnregistered(final Collection<LaunchBlockRegisteredHandler> handlers) {
+	}
+
+	/// Called when a message couldn't be decoded into its event
+	default void decodeFailed(final String topic) {
+	}
+
+	/// Called when a redelivered message is dropped; see {@link LaunchBlockEventManagerSettings#getDeduplicationWindow()}
+	default void duplicateDropped(final String topic) {
+	}
+
+	/// Called when coalescing handlers skip an event superseded by a later one of its batch; see {@link gg.launchblock.sdk.event.handling.LaunchBlockEventHandler#coalesce()}
+	default void eventCoalesced(final String topic) {
+	}
+
+}
@@ -0,0 +1,194 @@
+package gg.launchblock.sdk.metrics;
+
+import gg.launchblock.sdk.event.handling.LaunchBlockRegisteredHandler;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps every measurement in memory, per topic, partition or handler, to be read at any time. <br>
+ * Counters are {@link LongAdder}s and timings {@link LaunchBlockLatencyHistogram}s, so recording doesn't contend between threads. <br>
+ * Handlers and partitions are only measured while registered or assigned, so measurements of unregistered listeners' handlers
+ * and of revoked partitions' lag are discarded, and late measurements of them don't bring them back.
+ */
+public class LaunchBlockMetricsRecorder implements LaunchBlockMetrics {
+
+	private final Map<String, LongAdder> recordsPolled = new ConcurrentHashMap<>();
+
+	private final Map<String, LongAdder> decodeFailures = new ConcurrentHashMap<>();
+
+	private final Map<String, LongAdder> duplicatesDropped = new ConcurrentHashMap<>();
+
+	private final Map<String, LongAdder> eventsCoalesced = new ConcurrentHashMap<>();
+
+	private final Map<TopicPartition, Long> consumerLag = new ConcurrentHashMap<>();
+
+	private final Set<TopicPartition> assignedPartitions = ConcurrentHashMap.newKeySet();
+
+	private final Map<String, LaunchBlockLatencyHistogram> pollToDispatch = new ConcurrentHashMap<>();
+
+	// keyed by identity, so the handlers of each listener object are measured separately; entries exist while the handler is registered
+	private final Map<LaunchBlockRegisteredHandler, LaunchBlockLatencyHistogram> handlerTimes = new ConcurrentHashMap<>();
+
+	private final Map<LaunchBlockRegisteredHandler, LongAdder> handlerFailures = new ConcurrentHashMap<>();
+
+	private final Map<LaunchBlockRegisteredHandler, LongAdder> slowHandlers = new ConcurrentHashMap<>();
+
+	private final Map<LaunchBlockRegisteredHandler, LongAdder> handlerTimeouts = new ConcurrentHashMap<>();
+
+	@Override
+	public void recordsPolled(final String topic, final int count) {
+		recordsPolled.computeIfAbsent(topic, unused -> new LongAdder()).add(count);
+	}
+
+	@Override
+	public void consumerLag(final TopicPartition partition, final long lag) {
+		// lag and revocation are both reported by the partition's consumer, so it can't be revoked in between
+		if (assignedPartitions.contains(partition)) {
+			consumerLag.put(partition, lag);
+		}
+	}
+
+	@Override
+	public void partitionsAssigned(final Collection<TopicPartition> partitions) {
+		assignedPartitions.addAll(partitions);
+	}
+
+	@Override
+	public void partitionsRevoked(final Collection<TopicPartition> partitions) {
+		assignedPartitions.removeAll(partitions);
+		consumerLag.keySet().removeAll(partitions);
+	}
+
+	@Override
+	public void handlersRegistered(final Collection<LaunchBlockRegisteredHandler> handlers) {
+		for (LaunchBlockRegisteredHandler handler : handlers) {
+			handlerTimes.putIfAbsent(handler, new LaunchBlockLatencyHistogram());
+			handlerFailures.putIfAbsent(handler, new LongAdder());
+			slowHandlers.putIfAbsent(handler, new LongAdder());
+			handlerTimeouts.putIfAbsent(handler, new LongAdder());
+		}
+	}
+
+	@Override
+	public void handlersUnregistered(final Collection<LaunchBlockRegisteredHandler> handlers) {
+		handlers.forEach(handler -> {
+			handlerTimes.remove(handler);
+			handlerFailures.remove(handler);
+			slowHandlers.remove(handler);
+			handlerTimeouts.remove(handler);
+		});
+	}
+
+	@Override
+	public void eventDispatched(final String topic, final long pollToDispatchNanos) {
+		pollToDispatch.computeIfAbsent(topic, unused -> new LaunchBlockLatencyHistogram()).record(pollToDispatchNanos);
+	}
+
+	@Override
+	public void handlerExecuted(final LaunchBlockRegisteredHandler handler, final long nanos, final boolean failed) {
+		// handlers which were unregistered while running have no entries anymore, and aren't measured
+		final LaunchBlockLatencyHistogram times = handlerTimes.get(handler);
+		if (times != null) {
+			times.record(nanos);
+		}
+		if (failed) {
+			increment(handlerFailures, handler);
+		}
+	}
+
+	@Override
+	public void handlerSlow(final LaunchBlockRegisteredHandler handler, final long nanos) {
+		increment(slowHandlers, handler);
+	}
+
+	@Override
+	public void handlerTimedOut(final LaunchBlockRegisteredHandler handler) {
+		increment(handlerTimeouts, handler);
+	}
+
+	@Override
+	public void decodeFailed(final String topic) {
+		decodeFailures.computeIfAbsent(topic, unused -> new LongAdder()).increment();
+	}
+
+	@Override
+	public void duplicateDropped(final String topic) {
+		duplicatesDropped.computeIfAbsent(topic, unused -> new LongAdder()).increment();
+	}
+
+	@Override
+	public void eventCoalesced(final String topic) {
+		eventsCoalesced.computeIfAbsent(topic, unused -> new LongAdder()).increment();
+	}
+
+	/// @return the amount of records polled so far, per topic
+	public Map<String, Long> getRecordsPolled() {
+		return sums(recordsPolled);
+	}
+
+	/// @return the amount of messages which couldn't be decoded so far, per topic
+	public Map<String, Long> getDecodeFailures() {
+		return sums(decodeFailures);
+	}
+
+	/// @return the amount of redelivered messages dropped so far, per topic
+	public Map<String, Long> getDuplicatesDropped() {
+		return sums(duplicatesDropped);
+	}
+
+	/// @return the amount of events coalescing handlers skipped so far, per topic
+	public Map<String, Long> getEventsCoalesced() {
+		return sums(eventsCoalesced);
+	}
+
+	/// @return the last known amount of records not yet polled, per assigned partition
+	public Map<TopicPartition, Long> getConsumerLag() {
+		return Collections.unmodifiableMap(new HashMap<>(consumerLag));
+	}
+
+	/// @return the time between polling events and starting to dispatch them, in nanoseconds, per topic
+	public Map<String, LaunchBlockLatencyHistogram> getPollToDispatchLatency() {
+		return Collections.unmodifiableMap(pollToDispatch);
+	}
+
+	/// @return the execution time of each handler, in nanoseconds
+	public Map<LaunchBlockRegisteredHandler, LaunchBlockLatencyHistogram> getHandlerTimes() {
+		return Collections.unmodifiableMap(handlerTimes);
+	}
+
+	/// @return the amount of times each handler threw
+	public Map<LaunchBlockRegisteredHandler, Long> getHandlerFailures() {
+		return sums(handlerFailures);
+	}
+
+	/// @return the amount of times each handler exceeded the slow handler threshold
+	public Map<LaunchBlockRegisteredHandler, Long> getSlowHandlers() {
+		return sums(slowHandlers);
+	}
+
+	/// @return the amount of times dispatch stopped waiting for each handler
+	public Map<LaunchBlockRegisteredHandler, Long> getHandlerTimeouts() {
+		return sums(handlerTimeouts);
+	}
+
+	private static void increment(final Map<LaunchBlockRegisteredHandler, LongAdder> counters, final LaunchBlockRegisteredHandler handler) {
+		final LongAdder counter = counters.get(handler);
+		if (counter != null) {
+			counter.increment();
+		}
+	}
+
+	private static <K> Map<K, Long> sums(final Map<K, LongAdder> counters) {
+		final Map<K, Long> sums = new HashMap<>();
+		counters.forEach((key, counter) -> sums.put(key, counter.sum()));
+		return Collections.unmodifiableMap(sums);
+	}
+
+}
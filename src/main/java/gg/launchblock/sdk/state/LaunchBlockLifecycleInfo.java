@@ -0,0 +1,55 @@
+package gg.launchblock.sdk.state;
+
+import gg.launchblock.sdk.util.LifecycleState;
+
+import java.util.UUID;
+
+/// Immutable view of a lifecycle's current state, as materialized by {@link LaunchBlockLifecycleStateStore}
+public final class LaunchBlockLifecycleInfo {
+
+	private final UUID lifecycleId;
+
+	private final UUID projectId;
+
+	private final UUID environmentId;
+
+	private final UUID workspaceId;
+
+	private final LifecycleState state;
+
+	public LaunchBlockLifecycleInfo(final UUID lifecycleId, final UUID projectId, final UUID environmentId,
+									final UUID workspaceId, final LifecycleState state) {
+		this.lifecycleId = lifecycleId;
+		this.projectId = projectId;
+		this.environmentId = environmentId;
+		this.workspaceId = workspaceId;
+		this.state = state;
+	}
+
+	public UUID getLifecycleId() {
+		return lifecycleId;
+	}
+
+	public UUID getProjectId() {
+		return projectId;
+	}
+
+	public UUID getEnvironmentId() {
+		return environmentId;
+	}
+
+	public UUID getWorkspaceId() {
+		return workspaceId;
+	}
+
+	public LifecycleState getState() {
+		return state;
+	}
+
+	@Override
+	public String toString() {
+		return "LaunchBlockLifecycleInfo{lifecycleId=%s, projectId=%s, environmentId=%s, workspaceId=%s, state=%s}"
+				.formatted(lifecycleId, projectId, environmentId, workspaceId, state);
+	}
+
+}
@@ -0,0 +1,327 @@
+package gg.launchblock.sdk.state;
+
+import gg.launchblock.sdk.event.LaunchBlockLifecycleCreatedEvent;
+import gg.launchblock.sdk.event.LaunchBlockLifecycleStatusEvent;
+import gg.launchblock.sdk.event.LaunchBlockProjectCreatedEvent;
+import gg.launchblock.sdk.event.LaunchBlockProjectDeletedEvent;
+import gg.launchblock.sdk.event.handling.LaunchBlockEventHandler;
+import gg.launchblock.sdk.event.handling.LaunchBlockEventListener;
+import gg.launchblock.sdk.event.handling.LaunchBlockEventManager;
+import gg.launchblock.sdk.event.handling.LaunchBlockEventManagerSettings;
+import gg.launchblock.sdk.event.handling.LaunchBlockEventPriority;
+import gg.launchblock.sdk.util.LifecycleState;
+import org.apache.kafka.common.TopicPartition;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * In-memory view of the current state of every lifecycle and project, kept up to date from
+ * lifecycle created, lifecycle status, project created and project deleted events. <br>
+ * Register it on an event manager like any other listener; its handlers run with {@link LaunchBlockEventPriority#HIGHEST}
+ * priority, so other handlers of the same event already see the updated state. <br>
+ * Reads never lock and may run on any thread. Updates are serialized, and a query racing with an update
+ * sees the entity either before or after it. <br>
+ * Deleted projects are remembered for a while, so lifecycle events arriving after the deletion don't bring them back.
+ */
+public final class LaunchBlockLifecycleStateStore implements LaunchBlockEventListener {
+
+	private final Map<UUID, LaunchBlockLifecycleInfo> lifecycles = new ConcurrentHashMap<>();
+
+	private final Map<UUID, LaunchBlockProjectInfo> projects = new ConcurrentHashMap<>();
+
+	// secondary indexes, holding ids into the maps above
+	private final Map<UUID, Set<UUID>> lifecyclesByProject = new ConcurrentHashMap<>();
+
+	private final Map<UUID, Set<UUID>> lifecyclesByEnvironment = new ConcurrentHashMap<>();
+
+	private final Map<UUID, Map<LifecycleState, Set<UUID>>> lifecyclesByWorkspaceState = new ConcurrentHashMap<>();
+
+	private final Map<UUID, Set<UUID>> projectsByEnvironment = new ConcurrentHashMap<>();
+
+	private final Map<UUID, Set<UUID>> projectsByWorkspace = new ConcurrentHashMap<>();
+
+	/// epoch millis at which each recently deleted project was deleted; lifecycle events of these projects are dropped
+	private final Map<UUID, Long> deletedProjects = new ConcurrentHashMap<>();
+
+	private final long deletedProjectRetentionMillis;
+
+	/// epoch millis at which expired deleted projects were last forgotten
+	private long lastDeletedProjectExpiry = System.currentTimeMillis();
+
+	/// offsets of the last snapshot read, for partitions which haven't had new events committed since
+	private volatile Map<TopicPartition, Long> snapshotOffsets = Map.of();
+
+	public LaunchBlockLifecycleStateStore() {
+		this(Duration.ofHours(1));
+	}
+
+	/**
+	 * @param deletedProjectRetention how long deleted projects are remembered, during which lifecycle events of them are dropped
+	 * instead of recreating the project; lifecycle events of a project may arrive after its deletion, as they are sent on a different topic
+	 */
+	public LaunchBlockLifecycleStateStore(final Duration deletedProjectRetention) {
+		if (deletedProjectRetention.isNegative()) {
+			throw new IllegalArgumentException("deletedProjectRetention must not be negative, got " + deletedProjectRetention);
+		}
+		this.deletedProjectRetentionMillis = deletedProjectRetention.toMillis();
+	}
+
+	@LaunchBlockEventHandler(priority = LaunchBlockEventPriority.HIGHEST)
+	public void onLifecycleCreated(final LaunchBlockLifecycleCreatedEvent event) {
+		synchronized (this) {
+			final LaunchBlockLifecycleInfo known = lifecycles.get(event.getLifecycleId());
+			// a status event may have overtaken the creation of the lifecycle
+			putLifecycle(new LaunchBlockLifecycleInfo(event.getLifecycleId(), event.getProjectIdentifier(),
+					event.getEnvironmentIdentifier(), event.getWorkspaceId(), known != null ? known.getState() : LifecycleState.QUEUE));
+		}
+	}
+
+	@LaunchBlockEventHandler(priority = LaunchBlockEventPriority.HIGHEST)
+	public void onLifecycleStatus(final LaunchBlockLifecycleStatusEvent event) {
+		synchronized (this) {
+			putLifecycle(new LaunchBlockLifecycleInfo(event.getLifecycleId(), event.getProjectIdentifier(),
+					event.getEnvironmentIdentifier(), event.getWorkspaceId(), event.getNewState()));
+		}
+	}
+
+	@LaunchBlockEventHandler(priority = LaunchBlockEventPriority.HIGHEST)
+	public void onProjectCreated(final LaunchBlockProjectCreatedEvent event) {
+		synchronized (this) {
+			deletedProjects.remove(event.getProjectId());
+			putProject(new LaunchBlockProjectInfo(event.getProjectId(), event.getEnvironmentId(), event.getWorkspaceId(), event.getProjectName()));
+		}
+	}
+
+	@LaunchBlockEventHandler(priority = LaunchBlockEventPriority.HIGHEST)
+	public void onProjectDeleted(final LaunchBlockProjectDeletedEvent event) {
+		synchronized (this) {
+			final long now = System.currentTimeMillis();
+			expireDeletedProjects(now);
+			if (deletedProjectRetentionMillis > 0) {
+				deletedProjects.put(event.getProjectId(), now);
+			}
+			removeProject(event.getProjectId());
+		}
+	}
+
+	/// @return the lifecycle's current state, or null if it isn't known
+	public LaunchBlockLifecycleInfo getLifecycle(final UUID lifecycleId) {
+		return lifecycles.get(lifecycleId);
+	}
+
+	/// @return the project, or null if it isn't known
+	public LaunchBlockProjectInfo getProject(final UUID projectId) {
+		return projects.get(projectId);
+	}
+
+	public Collection<LaunchBlockLifecycleInfo> getLifecycles() {
+		return List.copyOf(lifecycles.values());
+	}
+
+	public Collection<LaunchBlockProjectInfo> getProjects() {
+		return List.copyOf(projects.values());
+	}
+
+	public List<LaunchBlockLifecycleInfo> getLifecyclesOfProject(final UUID projectId) {
+		return resolve(lifecyclesByProject.get(projectId), lifecycles, lifecycle -> lifecycle.getProjectId().equals(projectId));
+	}
+
+	public List<LaunchBlockLifecycleInfo> getLifecyclesOfEnvironment(final UUID environmentId) {
+		return resolve(lifecyclesByEnvironment.get(environmentId), lifecycles, lifecycle -> lifecycle.getEnvironmentId().equals(environmentId));
+	}
+
+	/// @return every lifecycle of the workspace which is currently in the state, e.g. all {@link LifecycleState#DEPLOYED} ones
+	public List<LaunchBlockLifecycleInfo> getLifecyclesInState(final UUID workspaceId, final LifecycleState state) {
+		final Map<LifecycleState, Set<UUID>> byState = lifecyclesByWorkspaceState.get(workspaceId);
+		return resolve(byState != null ? byState.get(state) : null, lifecycles,
+				lifecycle -> lifecycle.getState() == state && lifecycle.getWorkspaceId().equals(workspaceId));
+	}
+
+	public List<LaunchBlockProjectInfo> getProjectsOfEnvironment(final UUID environmentId) {
+		return resolve(projectsByEnvironment.get(environmentId), projects, project -> project.getEnvironmentId().equals(environmentId));
+	}
+
+	public List<LaunchBlockProjectInfo> getProjectsOfWorkspace(final UUID workspaceId) {
+		return resolve(projectsByWorkspace.get(workspaceId), projects, project -> project.getWorkspaceId().equals(workspaceId));
+	}
+
+	public int getLifecycleCount() {
+		return lifecycles.size();
+	}
+
+	public int getProjectCount() {
+		return projects.size();
+	}
+
+	/// @return whether the project has been deleted recently enough to still be remembered
+	public boolean isProjectDeleted(final UUID projectId) {
+		return deletedProjects.containsKey(projectId);
+	}
+
+	/// Forgets every lifecycle and project
+	public synchronized void clear() {
+		snapshotOffsets = Map.of();
+		lifecycles.clear();
+		projects.clear();
+		lifecyclesByProject.clear();
+		lifecyclesByEnvironment.clear();
+		lifecyclesByWorkspaceState.clear();
+		projectsByEnvironment.clear();
+		projectsByWorkspace.clear();
+		deletedProjects.clear();
+	}
+
+	/**
+	 * Writes the store's state to a snapshot file, along with the offsets of the events it reflects,
+	 * so a restarted application only needs to replay the events after them. See {@link #readSnapshot(Path)}. <br>
+	 * Snapshots are written to a temporary file first and then moved into place.
+	 * @param manager the manager this store is registered on, whose committed offsets are recorded
+	 */
+	public void writeSnapshot(final Path file, final LaunchBlockEventManager manager) throws IOException {
+		final LaunchBlockStateSnapshot snapshot;
+		// updates hold the same lock, so no event is applied between reading the offsets and copying the state;
+		// committed offsets only advance once their events have been handled, so the state reflects every event before them
+		synchronized (this) {
+			final Map<TopicPartition, Long> offsets = new HashMap<>(snapshotOffsets);
+			manager.getCommittedOffsets().forEach((partition, offset) -> offsets.merge(partition, offset, Math::max));
+
+			snapshot = new LaunchBlockStateSnapshot(offsets, List.copyOf(projects.values()), List.copyOf(lifecycles.values()),
+					Map.copyOf(deletedProjects));
+		}
+		snapshot.write(file);
+	}
+
+	/**
+	 * Replaces the store's state with that of a snapshot file. <br>
+	 * Pass the returned offsets to {@link LaunchBlockEventManagerSettings.Builder#startOffsets(Map)}
+	 * to only replay the events sent after the snapshot was written.
+	 * @return the offsets of the events the snapshot reflects
+	 */
+	public Map<TopicPartition, Long> readSnapshot(final Path file) throws IOException {
+		final LaunchBlockStateSnapshot snapshot = LaunchBlockStateSnapshot.read(file);
+
+		synchronized (this) {
+			clear();
+			deletedProjects.putAll(snapshot.getDeletedProjects());
+			snapshot.getProjects().forEach(this::putProject);
+			snapshot.getLifecycles().forEach(this::putLifecycle);
+			snapshotOffsets = Map.copyOf(snapshot.getOffsets());
+		}
+		return snapshotOffsets;
+	}
+
+	private void putLifecycle(final LaunchBlockLifecycleInfo lifecycle) {
+		// an event of a deleted project which was still on its way; recording it would bring the project back
+		if (deletedProjects.containsKey(lifecycle.getProjectId())) {
+			return;
+		}
+
+		final LaunchBlockLifecycleInfo previous = lifecycles.put(lifecycle.getLifecycleId(), lifecycle);
+		final UUID lifecycleId = lifecycle.getLifecycleId();
+
+		// add to the new index entries before leaving the old ones, so queries never miss the lifecycle
+		moveIndex(lifecyclesByProject, previous != null ? previous.getProjectId() : null, lifecycle.getProjectId(), lifecycleId);
+		moveIndex(lifecyclesByEnvironment, previous != null ? previous.getEnvironmentId() : null, lifecycle.getEnvironmentId(), lifecycleId);
+		addIndex(lifecyclesByWorkspaceState.computeIfAbsent(lifecycle.getWorkspaceId(),
+				workspaceId -> new ConcurrentHashMap<>()), lifecycle.getState(), lifecycleId);
+		if (previous != null && (previous.getState() != lifecycle.getState() || !previous.getWorkspaceId().equals(lifecycle.getWorkspaceId()))) {
+			removeStateIndex(previous);
+		}
+
+		// lifecycle events also tell us about their project, which may have been created before we started listening
+		if (!projects.containsKey(lifecycle.getProjectId())) {
+			putProject(new LaunchBlockProjectInfo(lifecycle.getProjectId(), lifecycle.getEnvironmentId(), lifecycle.getWorkspaceId(), null));
+		}
+	}
+
+	private void putProject(final LaunchBlockProjectInfo project) {
+		final LaunchBlockProjectInfo previous = projects.put(project.getProjectId(), project);
+		moveIndex(projectsByEnvironment, previous != null ? previous.getEnvironmentId() : null, project.getEnvironmentId(), project.getProjectId());
+		moveIndex(projectsByWorkspace, previous != null ? previous.getWorkspaceId() : null, project.getWorkspaceId(), project.getProjectId());
+	}
+
+	private void removeProject(final UUID projectId) {
+		final LaunchBlockProjectInfo project = projects.remove(projectId);
+		if (project != null) {
+			removeIndex(projectsByEnvironment, project.getEnvironmentId(), projectId);
+			removeIndex(projectsByWorkspace, project.getWorkspaceId(), projectId);
+		}
+
+		final Set<UUID> lifecycleIds = lifecyclesByProject.get(projectId);
+		if (lifecycleIds != null) {
+			for (UUID lifecycleId : List.copyOf(lifecycleIds)) {
+				final LaunchBlockLifecycleInfo lifecycle = lifecycles.remove(lifecycleId);
+				if (lifecycle != null) {
+					removeIndex(lifecyclesByProject, lifecycle.getProjectId(), lifecycleId);
+					removeIndex(lifecyclesByEnvironment, lifecycle.getEnvironmentId(), lifecycleId);
+					removeStateIndex(lifecycle);
+				}
+			}
+		}
+	}
+
+	/// Forgets deleted projects once they have been deleted for longer than the retention, checking at most once per retention
+	private void expireDeletedProjects(final long now) {
+		if (now - lastDeletedProjectExpiry < deletedProjectRetentionMillis) {
+			return;
+		}
+		lastDeletedProjectExpiry = now;
+		deletedProjects.values().removeIf(deletedAt -> now - deletedAt >= deletedProjectRetentionMillis);
+	}
+
+	private void removeStateIndex(final LaunchBlockLifecycleInfo lifecycle) {
+		final Map<LifecycleState, Set<UUID>> byState = lifecyclesByWorkspaceState.get(lifecycle.getWorkspaceId());
+		if (byState != null) {
+			removeIndex(byState, lifecycle.getState(), lifecycle.getLifecycleId());
+			if (byState.isEmpty()) {
+				lifecyclesByWorkspaceState.remove(lifecycle.getWorkspaceId());
+			}
+		}
+	}
+
+	private static <K> void moveIndex(final Map<K, Set<UUID>> index, final K previousKey, final K key, final UUID id) {
+		addIndex(index, key, id);
+		if (previousKey != null && !previousKey.equals(key)) {
+			removeIndex(index, previousKey, id);
+		}
+	}
+
+	private static <K> void addIndex(final Map<K, Set<UUID>> index, final K key, final UUID id) {
+		index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+	}
+
+	private static <K> void removeIndex(final Map<K, Set<UUID>> index, final K key, final UUID id) {
+		final Set<UUID> ids = index.get(key);
+		if (ids != null && ids.remove(id) && ids.isEmpty()) {
+			index.remove(key);
+		}
+	}
+
+	/// looks up indexed ids, dropping entities which changed since the index was read
+	private static <T> List<T> resolve(final Set<UUID> ids, final Map<UUID, T> entities, final Predicate<T> stillMatches) {
+		if (ids == null) {
+			return List.of();
+		}
+
+		final List<T> resolved = new ArrayList<>(ids.size());
+		for (UUID id : ids) {
+			final T entity = entities.get(id);
+			if (entity != null && stillMatches.test(entity)) {
+				resolved.add(entity);
+			}
+		}
+		return resolved;
+	}
+
+}
@@ -0,0 +1,46 @@
+package gg.launchblock.sdk.state;
+
+import java.util.UUID;
+
+/// Immutable view of a project, as materialized by {@link LaunchBlockLifecycleStateStore}
+public final class LaunchBlockProjectInfo {
+
+	private final UUID projectId;
+
+	private final UUID environmentId;
+
+	private final UUID workspaceId;
+
+	private final String projectName;
+
+	public LaunchBlockProjectInfo(final UUID projectId, final UUID environmentId, final UUID workspaceId, final String projectName) {
+		this.projectId = projectId;
+		this.environmentId = environmentId;
+		this.workspaceId = workspaceId;
+		this.projectName = projectName;
+	}
+
+	public UUID getProjectId() {
+		return projectId;
+	}
+
+	public UUID getEnvironmentId() {
+		return environmentId;
+	}
+
+	public UUID getWorkspaceId() {
+		return workspaceId;
+	}
+
+	/// @return the project's name, or null if the project is only known through events of its lifecycles
+	public String getProjectName() {
+		return projectName;
+	}
+
+	@Override
+	public String toString() {
+		return "LaunchBlockProjectInfo{projectId=%s, environmentId=%s, workspaceId=%s, projectName=%s}"
+				.formatted(projectId, environmentId, workspaceId, projectName);
+	}
+
+}
@@ -0,0 +1,240 @@
+package gg.launchblock.sdk.state;
+
+import gg.launchblock.sdk.util.LifecycleState;
+import org.apache.kafka.common.TopicPartition;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Binary snapshot of a {@link LaunchBlockLifecycleStateStore}, along with the offsets of the events it reflects. <br>
+ * Files are written and read through memory mapping, in this layout (big endian):
+ * <pre>
+ * int magic, int version
+ * int count, count * (short topic length, topic UTF-8, int partition, long offset)
+ * int count, count * (uuid project, uuid environment, uuid workspace, int name length or -1, name UTF-8)
+ * int count, count * (uuid deleted project, long epoch millis of its deletion)
+ * int count, count * (uuid lifecycle, uuid project, uuid environment, uuid workspace, byte state name length, state name UTF-8)
+ * </pre>
+ * States are stored by name, so snapshots stay readable when {@link LifecycleState} gains or reorders constants.
+ */
+final class LaunchBlockStateSnapshot {
+
+	private static final int MAGIC = 0x4C425353; // "LBSS"
+
+	private static final int VERSION = 1;
+
+	private static final int UUID_BYTES = 16;
+
+	private final Map<TopicPartition, Long> offsets;
+
+	private final Collection<LaunchBlockProjectInfo> projects;
+
+	private final Collection<LaunchBlockLifecycleInfo> lifecycles;
+
+	private final Map<UUID, Long> deletedProjects;
+
+	LaunchBlockStateSnapshot(final Map<TopicPartition, Long> offsets, final Collection<LaunchBlockProjectInfo> projects,
+							 final Collection<LaunchBlockLifecycleInfo> lifecycles, final Map<UUID, Long> deletedProjects) {
+		this.offsets = offsets;
+		this.projects = projects;
+		this.lifecycles = lifecycles;
+		this.deletedProjects = deletedProjects;
+	}
+
+	/// Writes the snapshot next to `file` first and then moves it into place, so a crash never leaves a partial snapshot behind
+	void write(final Path file) throws IOException {
+		final Map<TopicPartition, byte[]> topics = new HashMap<>();
+		final Map<UUID, byte[]> names = new HashMap<>();
+		final Map<LifecycleState, byte[]> stateNames = new EnumMap<>(LifecycleState.class);
+
+		long size = 4 + 4 + 4 + 4 + 4 + 4;
+		for (TopicPartition partition : offsets.keySet()) {
+			final byte[] topic = partition.topic().getBytes(StandardCharsets.UTF_8);
+			topics.put(partition, topic);
+			size += 2 + topic.length + 4 + 8;
+		}
+		for (LaunchBlockProjectInfo project : projects) {
+			size += 3 * UUID_BYTES + 4;
+			if (project.getProjectName() != null) {
+				final byte[] name = project.getProjectName().getBytes(StandardCharsets.UTF_8);
+				names.put(project.getProjectId(), name);
+				size += name.length;
+			}
+		}
+		size += (long) deletedProjects.size() * (UUID_BYTES + 8);
+		for (LaunchBlockLifecycleInfo lifecycle : lifecycles) {
+			final byte[] state = stateNames.computeIfAbsent(lifecycle.getState(), key -> key.name().getBytes(StandardCharsets.UTF_8));
+			size += 4 * UUID_BYTES + 1 + state.length;
+		}
+
+		final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+
+			buffer.putInt(offsets.size());
+			offsets.forEach((partition, offset) -> {
+				final byte[] topic = topics.get(partition);
+				buffer.putShort((short) topic.length);
+				buffer.put(topic);
+				buffer.putInt(partition.partition());
+				buffer.putLong(offset);
+			});
+
+			buffer.putInt(projects.size());
+			for (LaunchBlockProjectInfo project : projects) {
+				putUuid(buffer, project.getProjectId());
+				putUuid(buffer, project.getEnvironmentId());
+				putUuid(buffer, project.getWorkspaceId());
+				final byte[] name = names.get(project.getProjectId());
+				buffer.putInt(name != null ? name.length : -1);
+				if (name != null) {
+					buffer.put(name);
+				}
+			}
+
+			buffer.putInt(deletedProjects.size());
+			deletedProjects.forEach((projectId, deletedAt) -> {
+				putUuid(buffer, projectId);
+				buffer.putLong(deletedAt);
+			});
+
+			buffer.putInt(lifecycles.size());
+			for (LaunchBlockLifecycleInfo lifecycle : lifecycles) {
+				putUuid(buffer, lifecycle.getLifecycleId());
+				putUuid(buffer, lifecycle.getProjectId());
+				putUuid(buffer, lifecycle.getEnvironmentId());
+				putUuid(buffer, lifecycle.getWorkspaceId());
+				final byte[] state = stateNames.get(lifecycle.getState());
+				buffer.put((byte) state.length);
+				buffer.put(state);
+			}
+
+			buffer.force();
+		}
+
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		forceDirectory(file.toAbsolutePath().getParent());
+	}
+
+	/// Flushes the directory entry of a moved file, so the move itself survives a crash
+	private static void forceDirectory(final Path directory) {
+		try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException e) {
+			// some platforms, e.g. windows, can't open directories; the move is still atomic there
+		}
+	}
+
+	static LaunchBlockStateSnapshot read(final Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+				throw new IOException("'%s' is not a LaunchBlock state snapshot".formatted(file));
+			}
+			final int version = buffer.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported LaunchBlock state snapshot version %d in '%s'".formatted(version, file));
+			}
+
+			try {
+				final int offsetCount = buffer.getInt();
+				final Map<TopicPartition, Long> offsets = new HashMap<>();
+				for (int i = 0; i < offsetCount; i++) {
+					final String topic = getString(buffer, buffer.getShort());
+					offsets.put(new TopicPartition(topic, buffer.getInt()), buffer.getLong());
+				}
+
+				final int projectCount = buffer.getInt();
+				final List<LaunchBlockProjectInfo> projects = new ArrayList<>(Math.min(projectCount, buffer.remaining()));
+				for (int i = 0; i < projectCount; i++) {
+					final UUID projectId = getUuid(buffer);
+					final UUID environmentId = getUuid(buffer);
+					final UUID workspaceId = getUuid(buffer);
+					final int nameLength = buffer.getInt();
+					projects.add(new LaunchBlockProjectInfo(projectId, environmentId, workspaceId,
+							nameLength < 0 ? null : getString(buffer, nameLength)));
+				}
+
+				final int deletedProjectCount = buffer.getInt();
+				final Map<UUID, Long> deletedProjects = new HashMap<>();
+				for (int i = 0; i < deletedProjectCount; i++) {
+					deletedProjects.put(getUuid(buffer), buffer.getLong());
+				}
+
+				final int lifecycleCount = buffer.getInt();
+				final List<LaunchBlockLifecycleInfo> lifecycles = new ArrayList<>(Math.min(lifecycleCount, buffer.remaining()));
+				for (int i = 0; i < lifecycleCount; i++) {
+					final UUID lifecycleId = getUuid(buffer);
+					final UUID projectId = getUuid(buffer);
+					final UUID environmentId = getUuid(buffer);
+					final UUID workspaceId = getUuid(buffer);
+					final String stateName = getString(buffer, buffer.get());
+					final LifecycleState state;
+					try {
+						state = LifecycleState.valueOf(stateName);
+					} catch (IllegalArgumentException e) {
+						throw new IOException("Unknown lifecycle state '%s' in '%s'".formatted(stateName, file), e);
+					}
+					lifecycles.add(new LaunchBlockLifecycleInfo(lifecycleId, projectId, environmentId, workspaceId, state));
+				}
+
+				return new LaunchBlockStateSnapshot(offsets, projects, lifecycles, deletedProjects);
+			} catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+				throw new IOException("LaunchBlock state snapshot '%s' is truncated or corrupt".formatted(file), e);
+			}
+		}
+	}
+
+	Map<TopicPartition, Long> getOffsets() {
+		return offsets;
+	}
+
+	Collection<LaunchBlockProjectInfo> getProjects() {
+		return projects;
+	}
+
+	Collection<LaunchBlockLifecycleInfo> getLifecycles() {
+		return lifecycles;
+	}
+
+	Map<UUID, Long> getDeletedProjects() {
+		return deletedProjects;
+	}
+
+	private static void putUuid(final ByteBuffer buffer, final UUID uuid) {
+		buffer.putLong(uuid.getMostSignificantBits());
+		buffer.putLong(uuid.getLeastSignificantBits());
+	}
+
+	private static UUID getUuid(final ByteBuffer buffer) {
+		return new UUID(buffer.getLong(), buffer.getLong());
+	}
+
+	private static String getString(final ByteBuffer buffer, final int length) {
+		final byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,57 @@
+package gg.launchblock.sdk.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.IOException;
+
+public class JsonUtil {
+
+	/**
+	 * Shared by the whole SDK as mappers are expensive to create. <br>
+	 * Kept private since a mapper is only thread-safe as long as nobody reconfigures it; others use the immutable readers and writers below
+	 */
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	/// Same as {@link #OBJECT_MAPPER}, for {@link LaunchBlockMessageFormat#SMILE}
+	private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory());
+
+	private static final ObjectReader TREE_READER = OBJECT_MAPPER.reader();
+
+	private static final ObjectReader SMILE_TREE_READER = SMILE_MAPPER.reader();
+
+	private static final ObjectWriter WRITER = OBJECT_MAPPER.writer();
+
+	private static final ObjectWriter SMILE_WRITER = SMILE_MAPPER.writer();
+
+	/**
+	 * Parses UTF-8 encoded json or Smile directly from its bytes, without decoding it into a String first
+	 * @return The parsed json tree
+	 */
+	public static JsonNode readTree(final byte[] data) throws IOException {
+		return (isSmile(data) ? SMILE_TREE_READER : TREE_READER).readTree(data);
+	}
+
+	/// @return a streaming parser over UTF-8 encoded json or Smile, depending on the data's header
+	public static JsonParser createParser(final byte[] data) throws IOException {
+		return (isSmile(data) ? SMILE_MAPPER : OBJECT_MAPPER).getFactory().createParser(data);
+	}
+
+	/**
+	 * Serializes a json tree or any object jackson can serialize straight to bytes,
+	 * through jackson's recycled buffers instead of an intermediate String
+	 */
+	public static byte[] writeValueAsBytes(final Object value, final LaunchBlockMessageFormat format) throws JsonProcessingException {
+		return (format == LaunchBlockMessageFormat.SMILE ? SMILE_WRITER : WRITER).writeValueAsBytes(value);
+	}
+
+	/// @return whether the data starts with the header Smile encoded content is written with; false for null
+	public static boolean isSmile(final byte[] data) {
+		return data != null && data.length >= 3 && data[0] == ':' && data[1] == ')' && data[2] == '\n';
+	}
+}
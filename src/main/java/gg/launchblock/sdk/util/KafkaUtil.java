@@ -3,6 +3,7 @@ package gg.launchblock.sdk.util;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.time.Duration;
 
 public class KafkaUtil {
 
@@ -11,8 +12,17 @@ public class KafkaUtil {
 	 * @return The result of this attempt
 	 */
 	public static boolean isKafkaRunning() {
+		return isKafkaRunning(Duration.ofMillis(LaunchBlockSDKConstants.KAFKA_CONNECTION_TIMEOUT));
+	}
+
+	/**
+	 * Attempts to establish a connection to the kafka server specified through {@link LaunchBlockSDKConstants#KAFKA_HOSTNAME} and {@link LaunchBlockSDKConstants#KAFKA_PORT}
+	 * @param timeout how long to try connecting for before failing
+	 * @return The result of this attempt
+	 */
+	public static boolean isKafkaRunning(final Duration timeout) {
 		try (Socket socket = new Socket()) {
-			socket.connect(new InetSocketAddress(LaunchBlockSDKConstants.KAFKA_HOSTNAME, LaunchBlockSDKConstants.KAFKA_PORT), LaunchBlockSDKConstants.KAFKA_CONNECTION_TIMEOUT);
+			socket.connect(new InetSocketAddress(LaunchBlockSDKConstants.KAFKA_HOSTNAME, LaunchBlockSDKConstants.KAFKA_PORT), (int) Math.max(1, timeout.toMillis()));
 			return true;
 		} catch (IOException unused) {
 			return false;
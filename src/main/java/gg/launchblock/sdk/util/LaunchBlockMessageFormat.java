@@ -0,0 +1,13 @@
+package gg.launchblock.sdk.util;
+
+/// Encoding of the values of kafka messages emitted by the SDK; received messages of either format are decoded transparently
+public enum LaunchBlockMessageFormat {
+	/// UTF-8 encoded json, readable by any consumer
+	JSON,
+	/**
+	 * Jackson's binary json format, smaller and faster to encode and decode than json. <br>
+	 * Messages start with the `:)\n` Smile header, which is how consumers tell them apart from json.
+	 * Consumers outside of this SDK need a Smile decoder to read them.
+	 */
+	SMILE;
+}
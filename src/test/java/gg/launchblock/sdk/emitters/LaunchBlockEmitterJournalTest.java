@@ -0,0 +1,201 @@
+package gg.launchblock.sdk.emitters;
+
+import gg.launchblock.sdk.exception.LaunchBlockSDKException;
+import gg.launchblock.sdk.exception.LaunchBlockSDKExceptionType;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LaunchBlockEmitterJournalTest {
+
+	private static final String TOPIC = "topic";
+
+	/// segments are 128KiB with the smallest journal of 1MiB
+	private static final int VALUE_BYTES = 8 * 1024;
+
+	/// offset of the first record in a segment, after the segment's header
+	private static final int FIRST_RECORD_POSITION = 16;
+
+	/// length and checksum preceding every record
+	private static final int RECORD_HEADER_BYTES = 8;
+
+	@TempDir
+	private Path directory;
+
+	private final MockProducer<String, byte[]> producer = new MockProducer<>(true, new StringSerializer(), new ByteArraySerializer());
+
+	/// while kafka is unreachable, records accumulate in the journal
+	private volatile boolean reachable;
+
+	@Test
+	void rollsOverSegmentsAndSendsEveryRecordInOrder() throws Exception {
+		final LaunchBlockEmitterJournal journal = open();
+		try {
+			final List<CompletableFuture<RecordMetadata>> results = new ArrayList<>();
+			for (int i = 0; i < 40; i++) {
+				results.add(journal.append(TOPIC, String.valueOf(i), value(i), Map.of("index", String.valueOf(i))));
+			}
+			assertTrue(segmentFiles().size() >= 3, "40 records of 8KiB span at least 3 segments of 128KiB");
+			assertTrue(journal.getBacklogBytes() > 40L * VALUE_BYTES);
+
+			reachable = true;
+			CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+			final List<ProducerRecord<String, byte[]>> sent = producer.history();
+			assertEquals(40, sent.size());
+			for (int i = 0; i < 40; i++) {
+				assertEquals(String.valueOf(i), sent.get(i).key());
+				assertArrayEquals(value(i), sent.get(i).value());
+				assertArrayEquals(String.valueOf(i).getBytes(StandardCharsets.UTF_8), sent.get(i).headers().lastHeader("index").value());
+			}
+
+			// fully sent segments are deleted, except the one still appended to
+			assertEquals(1, segmentFiles().size());
+			assertEquals(0, journal.getBacklogBytes());
+		} finally {
+			journal.close();
+		}
+	}
+
+	@Test
+	void replaysUnsentRecordsAfterReopening() throws Exception {
+		final LaunchBlockEmitterJournal journal = open();
+		final CompletableFuture<RecordMetadata> unsent = journal.append(TOPIC, "key", value(1), Map.of());
+		journal.append(TOPIC, null, null, Map.of());
+		journal.close();
+
+		final Throwable failure = assertThrows(Exception.class, unsent::join).getCause();
+		assertInstanceOf(LaunchBlockSDKException.class, failure);
+		assertEquals(LaunchBlockSDKExceptionType.KAFKA, ((LaunchBlockSDKException) failure).getType());
+
+		reachable = true;
+		final List<ProducerRecord<String, byte[]>> sent = drainReopened(2);
+		assertEquals("key", sent.get(0).key());
+		assertArrayEquals(value(1), sent.get(0).value());
+		// tombstones survive the journal
+		assertNull(sent.get(1).key());
+		assertNull(sent.get(1).value());
+	}
+
+	@Test
+	void replayStopsAtTheFirstCorruptRecord() throws Exception {
+		final LaunchBlockEmitterJournal journal = open();
+		for (int i = 0; i < 4; i++) {
+			journal.append(TOPIC, String.valueOf(i), value(i), Map.of());
+		}
+		journal.close();
+
+		// e.g. a record only partially written to disk during a crash; it and every later record fail their checksum
+		final Path segment = segmentFiles().get(0);
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			int position = FIRST_RECORD_POSITION;
+			for (int i = 0; i < 2; i++) {
+				position += RECORD_HEADER_BYTES + readInt(channel, position);
+			}
+			final int corrupted = position + RECORD_HEADER_BYTES + readInt(channel, position) - 1;
+			final ByteBuffer lastByte = ByteBuffer.allocate(1);
+			channel.read(lastByte, corrupted);
+			lastByte.put(0, (byte) ~lastByte.get(0));
+			channel.write(lastByte.rewind(), corrupted);
+		}
+
+		reachable = true;
+		final List<ProducerRecord<String, byte[]>> sent = drainReopened(2);
+		assertEquals(List.of("0", "1"), sent.stream().map(ProducerRecord::key).toList());
+	}
+
+	@Test
+	void rejectsSegmentsOfUnknownFormats() throws IOException {
+		Files.createDirectories(directory);
+		Files.write(directory.resolve("%020d.journal".formatted(0)), new byte[64]);
+
+		final LaunchBlockSDKException exception = assertThrows(LaunchBlockSDKException.class, this::open);
+		assertEquals(LaunchBlockSDKExceptionType.KAFKA, exception.getType());
+	}
+
+	@Test
+	void rejectsRecordsExceedingASegment() {
+		final LaunchBlockEmitterJournal journal = open();
+		try {
+			final CompletableFuture<RecordMetadata> result = journal.append(TOPIC, null, new byte[256 * 1024], Map.of());
+			assertTrue(result.isCompletedExceptionally());
+			assertEquals(0, journal.getBacklogBytes());
+		} finally {
+			journal.close();
+		}
+	}
+
+	private LaunchBlockEmitterJournal open() {
+		final LaunchBlockEmitterSettings settings = LaunchBlockEmitterSettings.builder()
+				.journalDirectory(directory)
+				.maxJournalBytes(1024 * 1024)
+				.build();
+		final Supplier<Producer<String, byte[]>> producerSupplier = () -> {
+			if (!reachable) {
+				throw new IllegalStateException("kafka is unreachable");
+			}
+			return producer;
+		};
+		return LaunchBlockEmitterJournal.open(settings, producerSupplier);
+	}
+
+	/// Opens the journal again and waits for it to send the records recovered from disk
+	private List<ProducerRecord<String, byte[]>> drainReopened(final int expected) throws InterruptedException {
+		final LaunchBlockEmitterJournal journal = open();
+		try {
+			final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while (journal.getBacklogBytes() > 0 && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+			assertEquals(0, journal.getBacklogBytes());
+		} finally {
+			journal.close();
+		}
+
+		final List<ProducerRecord<String, byte[]>> sent = producer.history();
+		assertEquals(expected, sent.size());
+		return sent;
+	}
+
+	private List<Path> segmentFiles() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(file -> file.getFileName().toString().endsWith(".journal")).sorted().toList();
+		}
+	}
+
+	private static byte[] value(final int index) {
+		final byte[] value = new byte[VALUE_BYTES];
+		Arrays.fill(value, (byte) index);
+		return value;
+	}
+
+	private static int readInt(final FileChannel channel, final long position) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(4);
+		channel.read(buffer, position);
+		return buffer.getInt(0);
+	}
+
+}
@@ -0,0 +1,76 @@
+package gg.launchblock.sdk.event.handling;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LaunchBlockDeduplicatorTest {
+
+	private static final TopicPartition PARTITION = new TopicPartition("topic", 0);
+
+	private static final long WINDOW_NANOS = Duration.ofMinutes(1).toNanos();
+
+	private final LaunchBlockDeduplicator deduplicator = new LaunchBlockDeduplicator(WINDOW_NANOS);
+
+	@Test
+	void recognizesMessagesBelowTheHandledOffset() {
+		assertFalse(deduplicator.isDuplicate(message(PARTITION, 0), System.nanoTime()));
+
+		deduplicator.recordHandled(Map.of(PARTITION, new OffsetAndMetadata(10)));
+		final long now = System.nanoTime();
+		assertTrue(deduplicator.isDuplicate(message(PARTITION, 0), now));
+		assertTrue(deduplicator.isDuplicate(message(PARTITION, 9), now));
+		assertFalse(deduplicator.isDuplicate(message(PARTITION, 10), now));
+		assertFalse(deduplicator.isDuplicate(message(new TopicPartition("topic", 1), 0), now));
+	}
+
+	@Test
+	void forgetsMessagesHandledBeforeTheWindow() {
+		deduplicator.recordHandled(Map.of(PARTITION, new OffsetAndMetadata(10)));
+		assertFalse(deduplicator.isDuplicate(message(PARTITION, 5), System.nanoTime() + WINDOW_NANOS));
+	}
+
+	@Test
+	void neverMovesTheHandledOffsetBackwards() {
+		deduplicator.recordHandled(Map.of(PARTITION, new OffsetAndMetadata(10)));
+		deduplicator.recordHandled(Map.of(PARTITION, new OffsetAndMetadata(4)));
+		assertTrue(deduplicator.isDuplicate(message(PARTITION, 7), System.nanoTime()));
+	}
+
+	@Test
+	void keepsTheHandledOffsetOnlyWhenAssignedBehindIt() {
+		deduplicator.recordHandled(Map.of(PARTITION, new OffsetAndMetadata(10)));
+
+		// the commit of offsets 6 to 9 was lost, so they are delivered again
+		deduplicator.reset(PARTITION, 6);
+		assertTrue(deduplicator.isDuplicate(message(PARTITION, 8), System.nanoTime()));
+
+		// another consumer handled up to 12 since
+		deduplicator.reset(PARTITION, 12);
+		assertFalse(deduplicator.isDuplicate(message(PARTITION, 8), System.nanoTime()));
+	}
+
+	@Test
+	void expiresEntriesOfIdlePartitions() {
+		deduplicator.recordHandled(Map.of(PARTITION, new OffsetAndMetadata(10)));
+		final long now = System.nanoTime();
+
+		deduplicator.expire(now);
+		assertTrue(deduplicator.isDuplicate(message(PARTITION, 5), now));
+
+		deduplicator.expire(now + WINDOW_NANOS);
+		// an entry which would still be within the window if it hadn't been removed
+		assertFalse(deduplicator.isDuplicate(message(PARTITION, 5), now));
+	}
+
+	private static ConsumerRecord<String, byte[]> message(final TopicPartition partition, final long offset) {
+		return new ConsumerRecord<>(partition.topic(), partition.partition(), offset, null, new byte[0]);
+	}
+
+}
@@ -0,0 +1,167 @@
+package gg.launchblock.sdk.event.handling;
+
+import gg.launchblock.sdk.emitters.LaunchBlockEmitterSettings;
+import gg.launchblock.sdk.emitters.LaunchBlockMessageEmitter;
+import gg.launchblock.sdk.event.LaunchBlockEventTopic;
+import gg.launchblock.sdk.event.LaunchBlockLifecycleStatusEvent;
+import gg.launchblock.sdk.metrics.LaunchBlockMetricsRecorder;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Messages are handed to the manager directly through {@link LaunchBlockOfflineConnection}, so no kafka broker is involved
+class LaunchBlockEventManagerTest {
+
+	private static final String TOPIC = LaunchBlockEventTopic.LIFECYCLE_STATUS;
+
+	private static final String DEAD_LETTER_TOPIC = "dead-letters";
+
+	private final LaunchBlockMetricsRecorder metrics = new LaunchBlockMetricsRecorder();
+
+	private final UUID firstLifecycle = UUID.randomUUID();
+
+	private final UUID secondLifecycle = UUID.randomUUID();
+
+	private LaunchBlockEventManager eventManager;
+
+	private MockEmitter deadLetterEmitter;
+
+	@AfterEach
+	void tearDown() {
+		if (eventManager != null) {
+			eventManager.close();
+		}
+		if (deadLetterEmitter != null) {
+			deadLetterEmitter.close();
+		}
+	}
+
+	@Test
+	void skipsMessagesWhichCantBeDecoded() throws Exception {
+		eventManager = new LaunchBlockEventManager("test", LaunchBlockEventManagerSettings.builder()
+				.metrics(metrics)
+				.build(), LaunchBlockOfflineConnection.FACTORY);
+		final StatusListener listener = new StatusListener();
+		eventManager.registerEvents(listener);
+
+		// completing normally lets the batch's offsets be committed, rather than failing the consumer
+		eventManager.handleKafkaMessages(batchWithUndecodableMessages()).get(10, TimeUnit.SECONDS);
+
+		// events of different lifecycles may be handled in any order
+		assertEquals(Set.of(firstLifecycle, secondLifecycle), Set.copyOf(listener.handled));
+		assertEquals(Map.of(TOPIC, 3L), metrics.getDecodeFailures());
+	}
+
+	@Test
+	void deadLettersMessagesWhichCantBeDecoded() throws Exception {
+		deadLetterEmitter = new MockEmitter();
+		eventManager = new LaunchBlockEventManager("test", LaunchBlockEventManagerSettings.builder()
+				.metrics(metrics)
+				.errorPolicy(LaunchBlockErrorPolicy.DEAD_LETTER)
+				.deadLetterTopic(DEAD_LETTER_TOPIC)
+				.deadLetterEmitter(deadLetterEmitter)
+				.build(), LaunchBlockOfflineConnection.FACTORY);
+		final StatusListener listener = new StatusListener();
+		eventManager.registerEvents(listener);
+
+		eventManager.handleKafkaMessages(batchWithUndecodableMessages()).get(10, TimeUnit.SECONDS);
+
+		assertEquals(Set.of(firstLifecycle, secondLifecycle), Set.copyOf(listener.handled));
+
+		final List<ProducerRecord<String, byte[]>> deadLetters = deadLetterEmitter.producer.history();
+		assertEquals(List.of("1", "2", "3"), deadLetters.stream()
+				.map(record -> header(record, LaunchBlockFailureHandler.ORIGINAL_OFFSET_HEADER))
+				.toList());
+		deadLetters.forEach(record -> {
+			assertEquals(DEAD_LETTER_TOPIC, record.topic());
+			assertEquals(TOPIC, header(record, LaunchBlockFailureHandler.ORIGINAL_TOPIC_HEADER));
+			assertNull(record.headers().lastHeader(LaunchBlockFailureHandler.FAILED_HANDLERS_HEADER));
+		});
+		// the original messages are forwarded as-is, including the tombstone
+		assertNull(deadLetters.get(0).value());
+		assertArrayEquals("not json".getBytes(StandardCharsets.UTF_8), deadLetters.get(1).value());
+	}
+
+	@Test
+	void ignoresUndecodableMessagesNobodyHandles() throws Exception {
+		eventManager = new LaunchBlockEventManager("test", LaunchBlockEventManagerSettings.builder()
+				.metrics(metrics)
+				.build(), LaunchBlockOfflineConnection.FACTORY);
+
+		eventManager.handleKafkaMessages(batchWithUndecodableMessages()).get(10, TimeUnit.SECONDS);
+
+		assertTrue(metrics.getDecodeFailures().isEmpty());
+	}
+
+	/// two valid status messages surrounding a tombstone, a message which isn't json, and one missing a required field
+	private ConsumerRecords<String, byte[]> batchWithUndecodableMessages() {
+		final List<ConsumerRecord<String, byte[]>> records = List.of(
+				record(0, statusMessage(firstLifecycle)),
+				record(1, null),
+				record(2, "not json".getBytes(StandardCharsets.UTF_8)),
+				record(3, "{\"newState\":\"DEPLOYED\"}".getBytes(StandardCharsets.UTF_8)),
+				record(4, statusMessage(secondLifecycle)));
+		return new ConsumerRecords<>(Map.of(new TopicPartition(TOPIC, 0), records));
+	}
+
+	private static ConsumerRecord<String, byte[]> record(final long offset, final byte[] value) {
+		return new ConsumerRecord<>(TOPIC, 0, offset, null, value);
+	}
+
+	private static byte[] statusMessage(final UUID lifecycleId) {
+		return """
+				{"workspaceIdentifier":"%s","environmentIdentifier":"%s","projectIdentifier":"%s","lifecycleId":"%s",\
+				"oldState":"DEPLOYING","newState":"DEPLOYED"}"""
+				.formatted(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), lifecycleId)
+				.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String header(final ProducerRecord<String, byte[]> record, final String name) {
+		return new String(record.headers().lastHeader(name).value(), StandardCharsets.UTF_8);
+	}
+
+	public static class StatusListener implements LaunchBlockEventListener {
+
+		private final List<UUID> handled = new CopyOnWriteArrayList<>();
+
+		@LaunchBlockEventHandler
+		public void onLifecycleStatus(final LaunchBlockLifecycleStatusEvent event) {
+			handled.add(event.getLifecycleId());
+		}
+
+	}
+
+	private static class MockEmitter extends LaunchBlockMessageEmitter {
+
+		private MockProducer<String, byte[]> producer;
+
+		private MockEmitter() {
+			super(LaunchBlockEmitterSettings.DEFAULT);
+		}
+
+		@Override
+		public Producer<String, byte[]> createProducer() {
+			producer = new MockProducer<>(true, new StringSerializer(), new ByteArraySerializer());
+			return producer;
+		}
+
+	}
+
+}
@@ -0,0 +1,18 @@
+package gg.launchblock.sdk.event.handling;
+
+/// Connection which never connects to kafka, so tests and benchmarks pass records to {@link LaunchBlockEventManager#handleKafkaMessages} themselves
+final class LaunchBlockOfflineConnection extends LaunchBlockKafkaConsumerConnection {
+
+	static final LaunchBlockConnectionFactory FACTORY = LaunchBlockOfflineConnection::new;
+
+	private LaunchBlockOfflineConnection(final String groupId, final LaunchBlockEventManagerSettings settings,
+										 final LaunchBlockRecordProcessor recordProcessor, final LaunchBlockDeduplicator deduplicator) {
+		super(groupId, settings, recordProcessor, deduplicator);
+	}
+
+	@Override
+	protected void start() {
+		// records are only handled when a test or benchmark passes them to the manager
+	}
+
+}
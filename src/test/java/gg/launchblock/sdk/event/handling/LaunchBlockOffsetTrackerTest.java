@@ -0,0 +1,119 @@
+package gg.launchblock.sdk.event.handling;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LaunchBlockOffsetTrackerTest {
+
+	private static final TopicPartition PARTITION = new TopicPartition("topic", 0);
+
+	private static final TopicPartition OTHER_PARTITION = new TopicPartition("topic", 1);
+
+	private final LaunchBlockOffsetTracker tracker = new LaunchBlockOffsetTracker();
+
+	@Test
+	void commitsCompletedBatchesInOrder() {
+		final CompletableFuture<Void> first = new CompletableFuture<>();
+		final CompletableFuture<Void> second = new CompletableFuture<>();
+		final CompletableFuture<Void> third = new CompletableFuture<>();
+		tracker.track(batch(PARTITION, 0, 10), first);
+		tracker.track(batch(PARTITION, 10, 5), second);
+		tracker.track(batch(PARTITION, 15, 5), third);
+
+		// the second batch completing first mustn't commit past the first one
+		second.complete(null);
+		assertTrue(tracker.collectCommittable().isEmpty());
+
+		first.complete(null);
+		assertEquals(Map.of(PARTITION, new OffsetAndMetadata(15)), tracker.collectCommittable());
+		assertTrue(tracker.hasPending());
+
+		third.complete(null);
+		assertEquals(Map.of(PARTITION, new OffsetAndMetadata(20)), tracker.collectCommittable());
+		assertFalse(tracker.hasPending());
+		assertTrue(tracker.collectCommittable().isEmpty());
+	}
+
+	@Test
+	void tracksPartitionsOfABatchIndependently() {
+		final CompletableFuture<Void> first = new CompletableFuture<>();
+		final CompletableFuture<Void> second = new CompletableFuture<>();
+		tracker.track(batch(Map.of(PARTITION, 3, OTHER_PARTITION, 7)), first);
+		tracker.track(batch(PARTITION, 3, 2), second);
+
+		first.complete(null);
+		assertEquals(Map.of(PARTITION, new OffsetAndMetadata(3), OTHER_PARTITION, new OffsetAndMetadata(7)), tracker.collectCommittable());
+	}
+
+	@Test
+	void neverCommitsAFailedBatch() {
+		final CompletableFuture<Void> failed = new CompletableFuture<>();
+		final CompletableFuture<Void> later = new CompletableFuture<>();
+		tracker.track(batch(PARTITION, 0, 5), failed);
+		tracker.track(batch(PARTITION, 5, 5), later);
+
+		failed.completeExceptionally(new IllegalStateException("abandoned"));
+		later.complete(null);
+		assertTrue(tracker.collectCommittable().isEmpty());
+		assertTrue(tracker.hasPending());
+	}
+
+	@Test
+	void forgetsRevokedPartitions() {
+		final CompletableFuture<Void> completion = new CompletableFuture<>();
+		tracker.track(batch(Map.of(PARTITION, 3, OTHER_PARTITION, 3)), completion);
+
+		tracker.forget(List.of(PARTITION));
+		completion.complete(null);
+		assertEquals(Map.of(OTHER_PARTITION, new OffsetAndMetadata(3)), tracker.collectCommittable());
+	}
+
+	@Test
+	void allPendingCompletesWithEveryTrackedBatch() {
+		final CompletableFuture<Void> first = new CompletableFuture<>();
+		final CompletableFuture<Void> second = new CompletableFuture<>();
+		tracker.track(batch(PARTITION, 0, 1), first);
+		tracker.track(batch(OTHER_PARTITION, 0, 1), second);
+
+		final CompletableFuture<Void> allPending = tracker.allPending();
+		first.complete(null);
+		assertFalse(allPending.isDone());
+		second.complete(null);
+		assertTrue(allPending.isDone());
+
+		tracker.clear();
+		assertFalse(tracker.hasPending());
+		assertTrue(tracker.allPending().isDone());
+	}
+
+	private static ConsumerRecords<String, byte[]> batch(final TopicPartition partition, final long firstOffset, final int count) {
+		return new ConsumerRecords<>(Map.of(partition, records(partition, firstOffset, count)));
+	}
+
+	/// @param counts amount of records per partition, starting at offset 0
+	private static ConsumerRecords<String, byte[]> batch(final Map<TopicPartition, Integer> counts) {
+		final Map<TopicPartition, List<ConsumerRecord<String, byte[]>>> records = new HashMap<>();
+		counts.forEach((partition, count) -> records.put(partition, records(partition, 0, count)));
+		return new ConsumerRecords<>(records);
+	}
+
+	private static List<ConsumerRecord<String, byte[]>> records(final TopicPartition partition, final long firstOffset, final int count) {
+		final List<ConsumerRecord<String, byte[]>> records = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			records.add(new ConsumerRecord<>(partition.topic(), partition.partition(), firstOffset + i, null, new byte[0]));
+		}
+		return records;
+	}
+
+}
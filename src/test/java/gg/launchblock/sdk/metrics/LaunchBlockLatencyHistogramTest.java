@@ -0,0 +1,65 @@
+package gg.launchblock.sdk.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LaunchBlockLatencyHistogramTest {
+
+	private final LaunchBlockLatencyHistogram histogram = new LaunchBlockLatencyHistogram();
+
+	@Test
+	void reportsZeroWhenEmpty() {
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMean());
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.getValueAtPercentile(99));
+	}
+
+	@Test
+	void countsSmallValuesExactly() {
+		for (int value = 0; value < 8; value++) {
+			histogram.record(value);
+		}
+
+		assertEquals(8, histogram.getCount());
+		assertEquals(28, histogram.getSum());
+		assertEquals(3.5, histogram.getMean());
+		assertEquals(0, histogram.getValueAtPercentile(0));
+		assertEquals(3, histogram.getValueAtPercentile(50));
+		assertEquals(7, histogram.getValueAtPercentile(100));
+	}
+
+	@Test
+	void reportsPercentilesWithinABucketOfTheRecordedValues() {
+		for (int value = 1; value <= 10_000; value++) {
+			histogram.record(value * 1_000L);
+		}
+
+		assertEquals(10_000_000, histogram.getMax());
+		for (double percentile : new double[]{1, 25, 50, 90, 99, 99.9}) {
+			final long exact = (long) Math.ceil(percentile / 100 * 10_000) * 1_000;
+			final long reported = histogram.getValueAtPercentile(percentile);
+			assertTrue(reported >= exact && reported <= exact * 1.25,
+					"p%s was %d, recorded %d".formatted(percentile, reported, exact));
+		}
+	}
+
+	@Test
+	void capsPercentilesAtTheMaximum() {
+		histogram.record(1_000_001);
+		assertEquals(1_000_001, histogram.getValueAtPercentile(50));
+		assertEquals(1_000_001, histogram.getValueAtPercentile(100));
+	}
+
+	@Test
+	void recordsExtremeValues() {
+		histogram.record(-5);
+		histogram.record(Long.MAX_VALUE);
+
+		assertEquals(2, histogram.getCount());
+		assertEquals(0, histogram.getValueAtPercentile(50));
+		assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+	}
+
+}